@@ -0,0 +1,103 @@
+package com.example.rqchallenge.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Deterministic employee data for the benchmarks, so runs on different machines and commits measure the same input.
+ */
+final class BenchmarkEmployees {
+
+    private static final String[] FIRST_NAMES = { "John", "Janel", "Tiger", "Garrett", "Ashton", "Cedric", "Airi", "Brielle", "Herrod", "Rhona" };
+    private static final String[] LAST_NAMES = { "Doe", "Nixon", "Winters", "Cox", "Kelly", "Satou", "Williamson", "Chandler", "Davidson", "Hurst" };
+
+    private BenchmarkEmployees() {
+    }
+
+    static List<Employee> generate(int count) {
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + i;
+            employees.add(new Employee(String.valueOf(i), name, 18 + random.nextInt(50), 20000 + random.nextInt(480000)));
+        }
+        return employees;
+    }
+
+    /**
+     * Serializes the employees the way the remote api sends them: wrapped in status/data, with numeric ids.
+     */
+    static byte[] remoteJson(List<Employee> employees) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(employees.size() * 96);
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("status", "success");
+            generator.writeArrayFieldStart("data");
+            for (Employee employee : employees) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", Long.parseLong(employee.getId()));
+                generator.writeStringField("employee_name", employee.getEmployeeName());
+                writeNumberOrNull(generator, "employee_salary", employee.getEmployeeSalary());
+                writeNumberOrNull(generator, "employee_age", employee.getEmployeeAge());
+                generator.writeStringField("profile_image", "");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("message", "Successfully! All records has been fetched.");
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * EmployeeClient that answers findAll from memory and supports nothing else.
+     */
+    static EmployeeClient stubClient(List<Employee> employees) {
+        BaseRemoteDto<List<Employee>> response = new BaseRemoteDto<>();
+        response.setStatus("success");
+        response.setData(employees);
+
+        return new EmployeeClient() {
+            @Override
+            public BaseRemoteDto<List<Employee>> findAll() {
+                return response;
+            }
+
+            @Override
+            public BaseRemoteDto<Employee> getById(String id) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public BaseRemoteDto<CreatedEmployee> create(Map<String, Object> employeeInput) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public BaseRemoteDto<String> delete(String id) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    // #region private methods
+    private static void writeNumberOrNull(JsonGenerator generator, String field, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+    //#endregion
+}
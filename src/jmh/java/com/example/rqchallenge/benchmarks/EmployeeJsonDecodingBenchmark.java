@@ -0,0 +1,70 @@
+package com.example.rqchallenge.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeResponseDecoder;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Decoding of a findAll response body into BaseRemoteDto<List<Employee>>: Jackson databind, the way Spring's Feign decoder does it,
+ * against the streaming EmployeeResponseDecoder the app now uses.  The body is shaped like the remote api's: numeric ids and a
+ * profile_image field we do not map.  Both read from an InputStream, as Feign hands the body over.
+ *
+ * ./gradlew jmh -PjmhIncludes=EmployeeJsonDecodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeJsonDecodingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employeeCount;
+
+    private ObjectMapper objectMapper;
+    private JavaType responseType;
+    private EmployeeResponseDecoder streamingDecoder;
+    private byte[] responseBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Same unknown-property handling as the ObjectMapper Spring Boot hands to Feign
+        objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        responseType = objectMapper.getTypeFactory().constructParametricType(BaseRemoteDto.class,
+            objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+        streamingDecoder = new EmployeeResponseDecoder(objectMapper);
+        responseBody = BenchmarkEmployees.remoteJson(BenchmarkEmployees.generate(employeeCount));
+    }
+
+    @Benchmark
+    public BaseRemoteDto<List<Employee>> decodeFindAllResponse() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(responseBody), responseType);
+    }
+
+    @Benchmark
+    public BaseRemoteDto<List<Employee>> decodeFindAllResponseStreaming() throws IOException {
+        return streamingDecoder.decodeEmployees(new ByteArrayInputStream(responseBody));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.rqchallenge.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.rqchallenge.employees.BatchExecutor;
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeMetrics;
+import com.example.rqchallenge.employees.EmployeeService;
+import com.example.rqchallenge.employees.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.EmployeeSortField;
+import com.example.rqchallenge.employees.EmployeeStatistics;
+import com.example.rqchallenge.employees.NameSearchMode;
+import com.example.rqchallenge.employees.SalaryIndex;
+import com.example.rqchallenge.employees.SortDirection;
+import com.example.rqchallenge.employees.ValueStatistics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Read paths of EmployeeService served from a warm snapshot, against a stubbed EmployeeClient so only our own code is measured.
+ * The ttl is long enough that no refresh happens during a run, so every future is already complete when it is returned.
+ *
+ * ./gradlew jmh -PjmhIncludes=EmployeeServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employeeCount;
+
+    private BatchExecutor batchExecutor;
+    private EmployeeService employeeService;
+    private SalaryIndex salaryIndex;
+    private String fullName;
+    private String namePrefix;
+    private String nameFragment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Employee> employees = BenchmarkEmployees.generate(employeeCount);
+        var employeeClient = BenchmarkEmployees.stubClient(employees);
+        var snapshotCache = new EmployeeSnapshotCache(employeeClient, TimeUnit.DAYS.toMillis(1), Runnable::run, System::nanoTime);
+        batchExecutor = new BatchExecutor(1, 1, 60_000);
+        employeeService = new EmployeeService(employeeClient, snapshotCache, batchExecutor, new EmployeeMetrics(new SimpleMeterRegistry()));
+
+        // Load the snapshot outside the measurement
+        employeeService.getAllEmployees().join();
+        salaryIndex = snapshotCache.get().join().getSalaryIndex();
+
+        fullName = employees.get(employeeCount / 2).getEmployeeName();
+        namePrefix = fullName.substring(0, fullName.indexOf(' ') + 2);
+        nameFragment = fullName.substring(fullName.indexOf(' ') + 1, fullName.lastIndexOf(' '));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batchExecutor.shutdown();
+    }
+
+    @Benchmark
+    public List<String> topTenHighestEarningEmployeeNames() {
+        return employeeService.getTopTenHighestEarningEmployeeNames().join().getValue();
+    }
+
+    @Benchmark
+    public List<Employee> topHundredByAge() {
+        return employeeService.getTopEmployees(100, EmployeeSortField.AGE, SortDirection.DESC, null).join().getValue();
+    }
+
+    @Benchmark
+    public List<Employee> bottomFiftyBySalaryWithNameFilter() {
+        return employeeService.getTopEmployees(50, EmployeeSortField.SALARY, SortDirection.ASC, nameFragment).join().getValue();
+    }
+
+    @Benchmark
+    public EmployeeStatistics statistics() {
+        return employeeService.getStatistics().join().getValue();
+    }
+
+    /**
+     * What the first statistics request after a refresh or write pays for the salary half, before the result is kept.
+     */
+    @Benchmark
+    public ValueStatistics salaryStatisticsComputed() {
+        return ValueStatistics.of(salaryIndex.size(), salaryIndex::sortedSalaryAt);
+    }
+
+    @Benchmark
+    public Integer highestSalaryOfEmployees() {
+        return employeeService.getHighestSalaryOfEmployees().join().getValue();
+    }
+
+    @Benchmark
+    public List<Employee> nameSearchExact() {
+        return employeeService.getEmployeesByNameSearch(fullName, NameSearchMode.EXACT).join().getValue();
+    }
+
+    @Benchmark
+    public List<Employee> nameSearchPrefix() {
+        return employeeService.getEmployeesByNameSearch(namePrefix, NameSearchMode.PREFIX).join().getValue();
+    }
+
+    @Benchmark
+    public List<Employee> nameSearchSubstring() {
+        return employeeService.getEmployeesByNameSearch(nameFragment, NameSearchMode.SUBSTRING).join().getValue();
+    }
+}
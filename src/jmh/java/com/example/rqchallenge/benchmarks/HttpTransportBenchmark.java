@@ -0,0 +1,145 @@
+package com.example.rqchallenge.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.FeignConfiguration;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Client;
+import feign.Feign;
+import feign.Retryer;
+
+/**
+ * findAll throughput from 16 threads through Feign against a local stub of the remote api.
+ *
+ * default  Feign's default client: an HttpURLConnection per call, kept alive only through the JDK's cache of 5 idle connections
+ *          per host, and no compression.
+ * pooled   the client FeignConfiguration wires in: pooled keep-alive connections that ask for gzip.
+ *
+ * With responseEncoding=gzip the stub compresses the body for clients that accept it, the way the remote api does.  There is no
+ * network latency or TLS on localhost, so the gain measured here is a lower bound of what the pool and gzip save in production.
+ *
+ * ./gradlew jmh -PjmhIncludes=HttpTransportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class HttpTransportBenchmark {
+
+    @Param({"default", "pooled"})
+    public String transport;
+
+    @Param({"identity", "gzip"})
+    public String responseEncoding;
+
+    @Param({"100", "10000"})
+    public int employeeCount;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CloseableHttpClient httpClient;
+    private EmployeeClient employeeClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] body = BenchmarkEmployees.remoteJson(BenchmarkEmployees.generate(employeeCount));
+        byte[] gzippedBody = gzip(body);
+
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/api/v1/employees/", exchange -> respond(exchange, body, gzippedBody));
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        Client client;
+        if ("pooled".equals(transport)) {
+            FeignConfiguration configuration = new FeignConfiguration();
+            httpClient = configuration.employeeHttpClient(64, 64, 300_000, 30_000);
+            client = configuration.employeeFeignClient(httpClient, 2000, 3000, "findAll=2000/5000");
+        } else {
+            client = new Client.Default(null, null);
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        employeeClient = Feign.builder()
+            .client(client)
+            .contract(new SpringMvcContract())
+            .decoder((response, type) -> objectMapper.readValue(response.body().asInputStream(), objectMapper.constructType(type)))
+            .retryer(Retryer.NEVER_RETRY)
+            .target(EmployeeClient.class, "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public BaseRemoteDto<List<Employee>> findAll() {
+        return employeeClient.findAll();
+    }
+
+    // #region private methods
+    private void respond(HttpExchange exchange, byte[] body, byte[] gzippedBody) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean compress = "gzip".equals(responseEncoding) && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] payload = compress ? gzippedBody : body;
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (compress) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+    //#endregion
+}
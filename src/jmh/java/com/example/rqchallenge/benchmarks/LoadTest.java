@@ -0,0 +1,312 @@
+package com.example.rqchallenge.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.rqchallenge.RqChallengeApplication;
+import com.example.rqchallenge.employees.Employee;
+
+/**
+ * End-to-end load run: starts the whole application against a StubEmployeeApi, drives its http endpoints from `concurrency`
+ * closed-loop clients one scenario at a time, and prints each scenario's throughput, p50/p99/p999 latency and the upstream calls it
+ * caused.  Unlike the jmh benchmarks this measures the full request path - Tomcat, Spring MVC, Jackson, the cache and the guarded
+ * Feign client - so it is the one to size deployments with and to catch regressions between commits.
+ *
+ * Options are name=value arguments (see Options for the defaults).  Arguments starting with -- are application properties and
+ * override the ones the run sets, e.g. --employees.rate-limit.max-per-second=500.  The application logs at warn during a run so
+ * console output does not become the bottleneck.
+ *
+ * ./gradlew loadTest -PloadTestArgs="employees=100000 latency-millis=50 rate-429=0.05 scenarios=byId,search,mixed"
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        appProperties.put("server.port", "0");
+        appProperties.put("employees.snapshot.file", "");
+        appProperties.put("logging.level.com.example.rqchallenge", "warn");
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value but got " + arg);
+            }
+            if (arg.startsWith("--")) {
+                appProperties.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else {
+                options.set(arg.substring(0, equals), arg.substring(equals + 1));
+            }
+        }
+
+        List<Employee> employees = BenchmarkEmployees.generate(options.employees);
+        try (StubEmployeeApi upstream = StubEmployeeApi.start(employees, options.latencyMillis, options.tooManyRequestsRate)) {
+            appProperties.putIfAbsent("employees.remote.url", upstream.url());
+            List<String> appArgs = new ArrayList<>();
+            appProperties.forEach((name, value) -> appArgs.add("--" + name + "=" + value));
+
+            try (ConfigurableApplicationContext context = SpringApplication.run(RqChallengeApplication.class, appArgs.toArray(new String[0]))) {
+                URI app = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/");
+                HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+
+                System.out.printf(Locale.ROOT, "%,d employees, %d ms upstream latency, %.1f%% upstream 429s, %d clients, %d s warmup + %d s per scenario%n",
+                    options.employees, options.latencyMillis, options.tooManyRequestsRate * 100, options.concurrency, options.warmupSeconds,
+                    options.durationSeconds);
+                System.out.printf(Locale.ROOT, "%-14s %10s %10s %9s %9s %9s  %s%n", "scenario", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms",
+                    "upstream calls (429s) / errors");
+
+                for (Scenario scenario : options.scenarios) {
+                    drive(client, app, scenario, employees, options.concurrency, TimeUnit.SECONDS.toNanos(options.warmupSeconds));
+
+                    Map<StubEmployeeApi.Endpoint, Long> callsBefore = upstream.callCounts();
+                    Map<StubEmployeeApi.Endpoint, Long> tooManyBefore = upstream.tooManyRequestsCounts();
+                    Result result = drive(client, app, scenario, employees, options.concurrency, TimeUnit.SECONDS.toNanos(options.durationSeconds));
+
+                    System.out.printf(Locale.ROOT, "%-14s %,10d %,10.1f %9.2f %9.2f %9.2f  %s / %s%n", scenario.label, result.latencies.length,
+                        result.throughput(), result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                        upstreamCalls(callsBefore, upstream.callCounts(), tooManyBefore, upstream.tooManyRequestsCounts()),
+                        result.errors.isEmpty() ? "none" : result.errors);
+                }
+            }
+        }
+    }
+
+    /**
+     * The requests one scenario repeats.  Ids and names are drawn from the generated employees, so lookups and searches hit.
+     */
+    enum Scenario {
+        LIST("list", (app, employees, random) -> get(app, "")),
+        PAGE("page", (app, employees, random) -> get(app, "?limit=100&sort=salary&direction=desc")),
+        BY_ID("byId", (app, employees, random) -> get(app, pick(employees, random).getId())),
+        SEARCH("search", (app, employees, random) -> get(app, "search/" + pick(employees, random).getEmployeeName().split(" ")[1] + "?mode=substring")),
+        HIGHEST_SALARY("highestSalary", (app, employees, random) -> get(app, "highestSalary")),
+        TOP_TEN("topTen", (app, employees, random) -> get(app, "topTenHighestEarningEmployeeNames")),
+        TOP("top", (app, employees, random) -> get(app, "top?k=100&field=age")),
+        STATISTICS("statistics", (app, employees, random) -> get(app, "statistics")),
+        CREATE("create", (app, employees, random) -> HttpRequest.newBuilder(app)
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("{\"employee_name\":\"Load Test " + random.nextInt(1_000_000)
+                + "\",\"employee_age\":" + (18 + random.nextInt(50)) + ",\"employee_salary\":" + (20000 + random.nextInt(480000)) + "}"))
+            .build()),
+        // Mostly reads, the way the api is used, with one write in a hundred
+        MIXED("mixed", (app, employees, random) -> {
+            int draw = random.nextInt(100);
+            Scenario scenario = draw < 50 ? BY_ID : draw < 70 ? SEARCH : draw < 85 ? PAGE : draw < 95 ? STATISTICS : draw < 99 ? TOP : CREATE;
+            return scenario.requests.next(app, employees, random);
+        });
+
+        private final String label;
+        private final RequestSource requests;
+
+        Scenario(String label, RequestSource requests) {
+            this.label = label;
+            this.requests = requests;
+        }
+
+        static Scenario fromLabel(String label) {
+            for (Scenario scenario : values()) {
+                if (scenario.label.equalsIgnoreCase(label)) {
+                    return scenario;
+                }
+            }
+            throw new IllegalArgumentException("Unknown scenario " + label);
+        }
+    }
+
+    // #region private methods
+    @FunctionalInterface
+    private interface RequestSource {
+        HttpRequest next(URI app, List<Employee> employees, Random random);
+    }
+
+    private static final class Options {
+        int employees = 10_000;
+        long latencyMillis = 20;
+        double tooManyRequestsRate = 0;
+        int concurrency = 16;
+        int warmupSeconds = 5;
+        int durationSeconds = 20;
+        List<Scenario> scenarios = Arrays.asList(Scenario.values());
+
+        void set(String name, String value) {
+            switch (name) {
+                case "employees":
+                    employees = Integer.parseInt(value);
+                    break;
+                case "latency-millis":
+                    latencyMillis = Long.parseLong(value);
+                    break;
+                case "rate-429":
+                    tooManyRequestsRate = Double.parseDouble(value);
+                    break;
+                case "concurrency":
+                    concurrency = Integer.parseInt(value);
+                    break;
+                case "warmup-seconds":
+                    warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration-seconds":
+                    durationSeconds = Integer.parseInt(value);
+                    break;
+                case "scenarios":
+                    scenarios = new ArrayList<>();
+                    for (String label : value.split(",")) {
+                        scenarios.add(Scenario.fromLabel(label.trim()));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+    }
+
+    private static final class Result {
+        final long[] latencies;
+        final Map<String, Long> errors;
+        final long elapsedNanos;
+
+        Result(long[] latencies, Map<String, Long> errors, long elapsedNanos) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        double throughput() {
+            return latencies.length * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Nearest rank, like the statistics endpoint, so a percentile is a latency one request actually saw.
+         */
+        double percentileMillis(double percent) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int rank = (int) Math.ceil(percent / 100 * latencies.length);
+            return latencies[Math.max(rank, 1) - 1] / 1e6;
+        }
+    }
+
+    /**
+     * Latencies and failures seen by one client thread, so recording needs no synchronization.
+     */
+    private static final class Recorder {
+        long[] latencies = new long[1 << 14];
+        int count;
+        final Map<String, Long> errors = new TreeMap<>();
+
+        void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        void fail(String reason) {
+            errors.merge(reason, 1L, Long::sum);
+        }
+    }
+
+    private static Result drive(HttpClient client, URI app, Scenario scenario, List<Employee> employees, int concurrency, long durationNanos)
+            throws InterruptedException, ExecutionException {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            long start = System.nanoTime();
+            long deadline = start + durationNanos;
+            List<Future<Recorder>> running = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                running.add(clients.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    Random random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = scenario.requests.next(app, employees, random);
+                        long sent = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            // Failed requests count as errors rather than latencies, so a fast stream of 503s cannot improve the percentiles
+                            if (status >= 400) {
+                                recorder.fail(String.valueOf(status));
+                            } else {
+                                recorder.record(System.nanoTime() - sent);
+                            }
+                        } catch (IOException e) {
+                            recorder.fail(e.getClass().getSimpleName());
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+
+            int total = 0;
+            List<Recorder> recorders = new ArrayList<>(concurrency);
+            for (Future<Recorder> future : running) {
+                Recorder recorder = future.get();
+                recorders.add(recorder);
+                total += recorder.count;
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            long[] latencies = new long[total];
+            Map<String, Long> errors = new TreeMap<>();
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.count);
+                offset += recorder.count;
+                recorder.errors.forEach((reason, count) -> errors.merge(reason, count, Long::sum));
+            }
+            Arrays.sort(latencies);
+            return new Result(latencies, errors, elapsedNanos);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static String upstreamCalls(Map<StubEmployeeApi.Endpoint, Long> callsBefore, Map<StubEmployeeApi.Endpoint, Long> callsAfter,
+                                        Map<StubEmployeeApi.Endpoint, Long> tooManyBefore, Map<StubEmployeeApi.Endpoint, Long> tooManyAfter) {
+        StringBuilder calls = new StringBuilder();
+        for (StubEmployeeApi.Endpoint endpoint : StubEmployeeApi.Endpoint.values()) {
+            long count = callsAfter.get(endpoint) - callsBefore.get(endpoint);
+            long tooMany = tooManyAfter.get(endpoint) - tooManyBefore.get(endpoint);
+            if (count > 0) {
+                calls.append(calls.length() == 0 ? "" : " ").append(endpoint.name().toLowerCase(Locale.ROOT)).append('=').append(count);
+                if (tooMany > 0) {
+                    calls.append(" (").append(tooMany).append(')');
+                }
+            }
+        }
+        return calls.length() == 0 ? "none" : calls.toString();
+    }
+
+    private static HttpRequest get(URI app, String path) {
+        return HttpRequest.newBuilder(app.resolve(path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static Employee pick(List<Employee> employees, Random random) {
+        return employees.get(random.nextInt(employees.size()));
+    }
+    //#endregion
+}
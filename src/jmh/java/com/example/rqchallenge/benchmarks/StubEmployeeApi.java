@@ -0,0 +1,253 @@
+package com.example.rqchallenge.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stand-in for the four endpoints of the remote api, for load runs that cannot or should not reach the real one.
+ *
+ * Every call waits latencyMillis before it is answered, and tooManyRequestsRate of the calls are refused with an immediate 429, the
+ * way the remote api's rate limit answers.  Creates and deletes change the data later list calls return.  The list is gzipped for
+ * clients that accept it, as the remote api does.  Calls and 429s are counted per endpoint so a run can report how many upstream
+ * calls its requests cost.
+ */
+final class StubEmployeeApi implements AutoCloseable {
+
+    enum Endpoint { FIND_ALL, GET_BY_ID, CREATE, DELETE }
+
+    private static final String BASE_PATH = "/api/v1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMillis;
+    private final double tooManyRequestsRate;
+    private final Map<String, Employee> employees = new LinkedHashMap<>();
+    private final Map<Endpoint, LongAdder> calls = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> tooManyRequests = new EnumMap<>(Endpoint.class);
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    private long nextId;
+    // Serialized list, dropped on every write and rebuilt by the next list call
+    private byte[] findAllBody;
+    private byte[] findAllGzipped;
+
+    private StubEmployeeApi(List<Employee> initialEmployees, long latencyMillis, double tooManyRequestsRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.tooManyRequestsRate = tooManyRequestsRate;
+        for (Employee employee : initialEmployees) {
+            employees.put(employee.getId(), employee);
+            nextId = Math.max(nextId, Long.parseLong(employee.getId()));
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            calls.put(endpoint, new LongAdder());
+            tooManyRequests.put(endpoint, new LongAdder());
+        }
+
+        // Calls wait out their latency on a thread of their own, so latency adds up per call rather than queueing calls behind each other
+        executor = Executors.newCachedThreadPool();
+        // Without TCP_NODELAY small responses wait out delayed acks, which adds about 40ms to every call on some platforms.  Read once,
+        // when the first server in the JVM starts.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext(BASE_PATH + "/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @param latencyMillis       how long every answered call takes
+     * @param tooManyRequestsRate fraction of calls, from 0 to 1, refused with a 429
+     */
+    static StubEmployeeApi start(List<Employee> employees, long latencyMillis, double tooManyRequestsRate) throws IOException {
+        if (tooManyRequestsRate < 0 || tooManyRequestsRate > 1) {
+            throw new IllegalArgumentException("The 429 rate must be between 0 and 1");
+        }
+        return new StubEmployeeApi(employees, Math.max(0, latencyMillis), tooManyRequestsRate);
+    }
+
+    /**
+     * @return the url to configure as employees.remote.url
+     */
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    /**
+     * @return calls received so far per endpoint, including the ones refused with a 429
+     */
+    Map<Endpoint, Long> callCounts() {
+        return counts(calls);
+    }
+
+    Map<Endpoint, Long> tooManyRequestsCounts() {
+        return counts(tooManyRequests);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // #region private methods
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(BASE_PATH.length());
+            String method = exchange.getRequestMethod();
+
+            Endpoint endpoint;
+            if ("GET".equals(method) && path.equals("/employees/")) {
+                endpoint = Endpoint.FIND_ALL;
+            } else if ("GET".equals(method) && path.startsWith("/employee/")) {
+                endpoint = Endpoint.GET_BY_ID;
+            } else if ("POST".equals(method) && path.equals("/create")) {
+                endpoint = Endpoint.CREATE;
+            } else if ("DELETE".equals(method) && path.startsWith("/delete/")) {
+                endpoint = Endpoint.DELETE;
+            } else {
+                respond(exchange, 404, json(Map.of("status", "failed", "message", "Not found")));
+                return;
+            }
+
+            calls.get(endpoint).increment();
+            if (tooManyRequestsRate > 0 && ThreadLocalRandom.current().nextDouble() < tooManyRequestsRate) {
+                tooManyRequests.get(endpoint).increment();
+                respond(exchange, 429, json(Map.of("message", "Too Many Requests")));
+                return;
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            switch (endpoint) {
+                case FIND_ALL:
+                    respondWithList(exchange);
+                    break;
+                case GET_BY_ID:
+                    respondWithEmployee(exchange, path.substring("/employee/".length()));
+                    break;
+                case CREATE:
+                    respondWithCreated(exchange);
+                    break;
+                default:
+                    respondWithDeleted(exchange, path.substring("/delete/".length()));
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respondWithList(HttpExchange exchange) throws IOException {
+        byte[] body;
+        byte[] gzipped;
+        synchronized (this) {
+            if (findAllBody == null) {
+                findAllBody = BenchmarkEmployees.remoteJson(new ArrayList<>(employees.values()));
+                findAllGzipped = gzip(findAllBody);
+            }
+            body = findAllBody;
+            gzipped = findAllGzipped;
+        }
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            respond(exchange, 200, gzipped);
+        } else {
+            respond(exchange, 200, body);
+        }
+    }
+
+    private void respondWithEmployee(HttpExchange exchange, String id) throws IOException {
+        Employee employee;
+        synchronized (this) {
+            employee = employees.get(id);
+        }
+        // The remote api answers an unknown id with a 200 and no data
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "success");
+        response.put("data", employee);
+        response.put("message", "Successfully! Record has been fetched.");
+        respond(exchange, 200, json(response));
+    }
+
+    private void respondWithCreated(HttpExchange exchange) throws IOException {
+        Map<String, Object> input;
+        try (InputStream in = exchange.getRequestBody()) {
+            input = objectMapper.readValue(in, new TypeReference<Map<String, Object>>() {});
+        }
+
+        CreatedEmployee created = new CreatedEmployee(null, asString(input.get("name")), asInteger(input.get("age")), asInteger(input.get("salary")));
+        synchronized (this) {
+            created.setId(String.valueOf(++nextId));
+            employees.put(created.getId(), new Employee(created.getId(), created.getName(), created.getAge(), created.getSalary()));
+            findAllBody = null;
+        }
+        respond(exchange, 200, json(Map.of("status", "success", "data", created, "message", "Successfully! Record has been added.")));
+    }
+
+    private void respondWithDeleted(HttpExchange exchange, String id) throws IOException {
+        synchronized (this) {
+            if (employees.remove(id) != null) {
+                findAllBody = null;
+            }
+        }
+        respond(exchange, 200, json(Map.of("status", "success", "data", id, "message", "Successfully! Record has been deleted")));
+    }
+
+    private byte[] json(Object value) throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<Endpoint, Long> counts(Map<Endpoint, LongAdder> adders) {
+        Map<Endpoint, Long> counts = new EnumMap<>(Endpoint.class);
+        adders.forEach((endpoint, adder) -> counts.put(endpoint, adder.sum()));
+        return counts;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static Integer asInteger(Object value) {
+        return value == null ? null : Integer.valueOf(value.toString());
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+    //#endregion
+}
@@ -0,0 +1,143 @@
+package com.example.rqchallenge.employees;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Client-side limit on how fast we call the remote api, learned with AIMD (additive increase, multiplicative decrease).
+ *
+ * Calls are paced one interval (1 / rate) apart.  A caller reserves the next free slot and is told how long to wait for it; if that
+ * wait is longer than it can afford the reservation is refused instead of queued.  Every successful call nudges the rate up so that a
+ * full second of successes adds additiveIncrease permits per second; a 429 multiplies it by decreaseFactor.  A burst of 429s from
+ * calls that were already in flight only counts as one decrease.
+ */
+@Component
+public class AdaptiveRateLimiter {
+
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double minRate;
+    private final double maxRate;
+    private final double additiveIncrease;
+    private final double decreaseFactor;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private long nextFreeNanos;
+    private long lastDecreaseNanos;
+
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    Logger logger = LoggerFactory.getLogger(AdaptiveRateLimiter.class);
+
+    @Autowired
+    public AdaptiveRateLimiter(@Value("${employees.rate-limit.initial-per-second:5}") double initialRate,
+                               @Value("${employees.rate-limit.min-per-second:0.5}") double minRate,
+                               @Value("${employees.rate-limit.max-per-second:50}") double maxRate,
+                               @Value("${employees.rate-limit.additive-increase:1}") double additiveIncrease,
+                               @Value("${employees.rate-limit.decrease-factor:0.5}") double decreaseFactor,
+                               @Value("${employees.rate-limit.max-wait-millis:2000}") long maxWaitMillis,
+                               EmployeeMetrics metrics) {
+        this(initialRate, minRate, maxRate, additiveIncrease, decreaseFactor, maxWaitMillis, System::nanoTime);
+        metrics.registerRateLimiter(this);
+    }
+
+    public AdaptiveRateLimiter(double initialRate, double minRate, double maxRate, double additiveIncrease, double decreaseFactor,
+                               long maxWaitMillis, LongSupplier nanoClock) {
+        if (minRate <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException("Rate limits must satisfy 0 < min <= max");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.additiveIncrease = additiveIncrease;
+        this.decreaseFactor = decreaseFactor;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.nanoClock = nanoClock;
+        this.rate = Math.min(maxRate, Math.max(minRate, initialRate));
+
+        long now = nanoClock.getAsLong();
+        this.nextFreeNanos = now;
+        this.lastDecreaseNanos = now - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * Reserves the next free slot.
+     *
+     * @param budgetNanos the longest the caller can wait; the configured max wait applies as well
+     * @return how long to wait before making the call (0 to go now), or -1 when the wait would exceed the budget and nothing was reserved
+     */
+    public synchronized long reserve(long budgetNanos) {
+        long now = nanoClock.getAsLong();
+        long slot = Math.max(nextFreeNanos, now);
+        long waitNanos = slot - now;
+        if (waitNanos > Math.min(maxWaitNanos, budgetNanos)) {
+            rejected.increment();
+            return -1;
+        }
+
+        nextFreeNanos = slot + intervalNanos();
+        if (waitNanos > 0) {
+            delayed.increment();
+        }
+        return waitNanos;
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + additiveIncrease / rate);
+    }
+
+    public synchronized void onThrottled() {
+        throttled.increment();
+        long now = nanoClock.getAsLong();
+        if (now - lastDecreaseNanos < DECREASE_COOLDOWN_NANOS) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        rate = Math.max(minRate, rate * decreaseFactor);
+        logger.info("Remote api throttled us; client-side rate limit lowered to {} calls/s", String.format("%.2f", rate));
+    }
+
+    /**
+     * @return the current limit in calls per second
+     */
+    public synchronized double getCurrentRate() {
+        return rate;
+    }
+
+    /**
+     * Number of calls that had to wait for a slot.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * Number of calls refused because the wait for a slot was longer than they could afford.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Number of 429 responses seen, including the ones that did not lower the rate.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    // #region private methods
+    private long intervalNanos() {
+        return (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+    //#endregion
+}
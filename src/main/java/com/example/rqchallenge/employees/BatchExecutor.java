@@ -0,0 +1,203 @@
+package com.example.rqchallenge.employees;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import feign.FeignException;
+
+/**
+ * Runs the items of a batch request against the remote api with a bounded number of calls in flight.
+ *
+ * The window is shared by every batch in the process, so two large imports together still put at most `concurrency` calls on the
+ * remote api at a time; each call also still goes through the retry and rate limiting of the GuardedEmployeeClient.  Batches take
+ * turns at free slots, one item each, and a new batch gets the next free one, so a small batch arriving behind a large one starts
+ * straight away rather than after it.  As soon as one item finishes the next one starts, and a failing item only fails itself - it
+ * is reported in its result and the batch carries on.
+ *
+ * Every batch has a deadline.  Items it has not started by then are not sent at all and fail with 503, so the caller knows exactly
+ * which ones reached the remote api; items already sent finish within their own retry deadline.  Items waiting for the window are
+ * only queued, and items in flight are futures, so a batch holds no thread while it runs.
+ */
+@Component
+public class BatchExecutor {
+
+    private final int concurrency;
+    private final int maxItems;
+    private final long deadlineMillis;
+    private final ScheduledExecutorService deadlineScheduler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Deque<Batch<?, ?>> batches = new ConcurrentLinkedDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    Logger logger = LoggerFactory.getLogger(BatchExecutor.class);
+
+    @Autowired
+    public BatchExecutor(@Value("${employees.batch.concurrency:8}") int concurrency,
+                         @Value("${employees.batch.max-items:10000}") int maxItems,
+                         @Value("${employees.batch.deadline-millis:60000}") long deadlineMillis) {
+        this(concurrency, maxItems, deadlineMillis, RetryScheduler.newTimerScheduler("employee-batch-deadline"));
+    }
+
+    public BatchExecutor(int concurrency, int maxItems, long deadlineMillis, ScheduledExecutorService deadlineScheduler) {
+        this.concurrency = Math.max(1, concurrency);
+        this.maxItems = maxItems;
+        this.deadlineMillis = deadlineMillis;
+        this.deadlineScheduler = deadlineScheduler;
+    }
+
+    /**
+     * Applies the call to every item.  The future completes once all of them have, with the results in the order of the items.
+     *
+     * @throws IllegalArgumentException when the batch is empty or larger than the configured maximum
+     */
+    public <T, R> CompletableFuture<List<BatchItemResult<R>>> run(List<T> items, Function<T, CompletableFuture<BatchItemResult<R>>> call) {
+        if (items == null || items.isEmpty() || items.size() > maxItems) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + maxItems + " items");
+        }
+
+        Batch<T, R> batch = new Batch<>(items, call);
+        ScheduledFuture<?> deadline = deadlineScheduler.schedule(batch::expire, deadlineMillis, TimeUnit.MILLISECONDS);
+        // A new batch gets the next free slot, then joins the rotation behind the others
+        batches.addFirst(batch);
+        drain();
+
+        return CompletableFuture.allOf(batch.results.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            deadline.cancel(false);
+            List<BatchItemResult<R>> results = new ArrayList<>(items.size());
+            for (CompletableFuture<BatchItemResult<R>> result : batch.results) {
+                results.add(result.join());
+            }
+            return results;
+        });
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineScheduler.shutdownNow();
+    }
+
+    // #region private methods
+    /**
+     * Starts waiting items while the window has room, taking one from each batch in turn.  Only one thread drains at a time; an item
+     * that completes straight away hands its slot back to the running loop rather than starting the next item from inside its own
+     * completion.
+     */
+    private void drain() {
+        while (draining.compareAndSet(false, true)) {
+            try {
+                while (inFlight.get() < concurrency) {
+                    Batch<?, ?> batch = batches.pollFirst();
+                    if (batch == null) {
+                        break;
+                    }
+                    Integer index = batch.waiting.poll();
+                    if (index == null) {
+                        // Every item started or expired; the batch leaves the rotation
+                        continue;
+                    }
+                    // Back of the line, behind every other batch waiting for a slot
+                    batches.addLast(batch);
+                    inFlight.incrementAndGet();
+                    batch.start(index);
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Something may have been queued or finished after the loop looked and before the flag was cleared
+            if (batches.isEmpty() || inFlight.get() >= concurrency) {
+                return;
+            }
+        }
+    }
+
+    private <R> BatchItemResult<R> failed(RuntimeException failure) {
+        if (failure instanceof FeignException) {
+            int status = ((FeignException) failure).status();
+            return BatchItemResult.failed(status > 0 ? status : 502, failure.getMessage());
+        }
+        if (failure instanceof IllegalArgumentException) {
+            return BatchItemResult.failed(422, failure.getMessage());
+        }
+        if (failure instanceof UpstreamUnavailableException) {
+            return BatchItemResult.failed(503, failure.getMessage());
+        }
+        logger.error("Batch item failed.", failure);
+        return BatchItemResult.failed(500, failure.getMessage());
+    }
+
+    /**
+     * One batch request: its items, the indexes of those not started yet, and a result per item.
+     */
+    private final class Batch<T, R> {
+        private final List<T> items;
+        private final Function<T, CompletableFuture<BatchItemResult<R>>> call;
+        private final List<CompletableFuture<BatchItemResult<R>>> results;
+        private final Queue<Integer> waiting = new ConcurrentLinkedQueue<>();
+
+        private Batch(List<T> items, Function<T, CompletableFuture<BatchItemResult<R>>> call) {
+            this.items = items;
+            this.call = call;
+            this.results = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                results.add(new CompletableFuture<>());
+                waiting.add(i);
+            }
+        }
+
+        private void start(int index) {
+            CompletableFuture<BatchItemResult<R>> started;
+            try {
+                started = call.apply(items.get(index));
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, failure) -> {
+                inFlight.decrementAndGet();
+                results.get(index).complete(failure == null ? value : failed(Futures.unwrap(failure)));
+                drain();
+            });
+        }
+
+        /**
+         * Fails every item not started yet.  Taking an index off the queue is what starts or expires an item, so none can do both.
+         */
+        private void expire() {
+            int expired = 0;
+            for (Integer index = waiting.poll(); index != null; index = waiting.poll()) {
+                results.get(index).complete(BatchItemResult.failed(503, "Not sent: the batch did not reach this item within " + deadlineMillis + "ms"));
+                expired++;
+            }
+            if (expired > 0) {
+                logger.warn("Batch ran past its deadline of {}ms; {} of its {} items were not sent", deadlineMillis, expired, items.size());
+            }
+        }
+    }
+    //#endregion
+}
@@ -0,0 +1,55 @@
+package com.example.rqchallenge.employees;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item in a batch request.  status is the http status the item would have got as a single request;
+ * data is set on success and error on failure.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult<T> {
+    private int status;
+    private T data;
+    private String error;
+
+    public BatchItemResult() {
+    }
+
+    public BatchItemResult(int status, T data, String error) {
+        this.status = status;
+        this.data = data;
+        this.error = error;
+    }
+
+    public static <T> BatchItemResult<T> ok(T data) {
+        return new BatchItemResult<>(200, data, null);
+    }
+
+    public static <T> BatchItemResult<T> failed(int status, String error) {
+        return new BatchItemResult<>(status, null, error);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public void setData(T data) {
+        this.data = data;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
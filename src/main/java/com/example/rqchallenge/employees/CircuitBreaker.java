@@ -0,0 +1,219 @@
+package com.example.rqchallenge.employees;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import feign.FeignException;
+
+/**
+ * Stops sending calls to the remote api while it is failing, so callers get an answer straight away instead of tying up upstream
+ * threads on calls that are very likely to fail.
+ *
+ * CLOSED     calls go through; the outcome of the last windowSize calls is kept.  Once at least minimumCalls outcomes are in the
+ *            window and the share of failures reaches failureRateThreshold percent, the circuit opens.
+ * OPEN       every call is refused without being sent.  After openMillis the circuit goes half-open.
+ * HALF_OPEN  up to halfOpenCalls trial calls are let through and everything else is refused.  One failed trial opens the circuit
+ *            again; once every trial has succeeded it closes with an empty window.
+ *
+ * Only failures that say something about the health of the remote api count: no response, a 429 or a 5xx.  Other 4xx answers
+ * (an unknown id, a bad request) count as successes.
+ */
+@Component
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final EmployeeMetrics metrics;
+
+    // Ring buffer of the most recent outcomes, true for a failure
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final LongAdder rejected = new LongAdder();
+
+    Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    @Autowired
+    public CircuitBreaker(@Value("${employees.circuit.window-size:20}") int windowSize,
+                          @Value("${employees.circuit.minimum-calls:10}") int minimumCalls,
+                          @Value("${employees.circuit.failure-rate-threshold:50}") int failureRateThreshold,
+                          @Value("${employees.circuit.open-millis:10000}") long openMillis,
+                          @Value("${employees.circuit.half-open-calls:3}") int halfOpenCalls,
+                          EmployeeMetrics metrics) {
+        this(windowSize, minimumCalls, failureRateThreshold, openMillis, halfOpenCalls, System::nanoTime, metrics);
+    }
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMillis, int halfOpenCalls,
+                          LongSupplier nanoClock, EmployeeMetrics metrics) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Circuit breaker settings must satisfy 1 <= minimum-calls <= window-size and half-open-calls >= 1");
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.metrics = metrics;
+        metrics.registerCircuitBreaker(this);
+    }
+
+    /**
+     * Asks to send one call.  Every granted permission must be followed by onResult once the call is done, or by releasePermission
+     * when the call ends up not being sent.
+     *
+     * @return false when the call must not be sent
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                rejected.increment();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                rejected.increment();
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Hands back a permission whose call was never sent.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    /**
+     * @param failure what the call threw, or null when it succeeded
+     */
+    public synchronized void onResult(RuntimeException failure) {
+        boolean failed = failure != null && isUpstreamFailure(failure);
+
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                transitionTo(State.OPEN);
+            } else if (++trialsSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(failed);
+            if (windowCount >= minimumCalls && windowFailures * 100L >= (long) failureRateThreshold * windowCount) {
+                transitionTo(State.OPEN);
+            }
+        }
+        // While open, only calls that were sent before the circuit opened can finish; their outcome no longer matters
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the share of failures among the outcomes in the window, in percent (0 while the window is empty)
+     */
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100.0 / windowCount;
+    }
+
+    /**
+     * @return how long until the circuit lets trial calls through, or 0 when it is not open
+     */
+    public synchronized long getRetryAfterMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openedAtNanos + openNanos - nanoClock.getAsLong()));
+    }
+
+    /**
+     * Number of calls refused without being sent.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return true when the failure says the remote api is unhealthy (no response, a 429 or a 5xx) rather than that the request was wrong
+     */
+    static boolean isUpstreamFailure(RuntimeException failure) {
+        if (!(failure instanceof FeignException)) {
+            return true;
+        }
+        int status = ((FeignException) failure).status();
+        return status <= 0 || status == 429 || status >= 500;
+    }
+
+    // #region private methods
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        switch (next) {
+            case OPEN:
+                openedAtNanos = nanoClock.getAsLong();
+                if (previous == State.HALF_OPEN) {
+                    logger.warn("A trial call to the remote api failed; refusing calls for another {}ms", TimeUnit.NANOSECONDS.toMillis(openNanos));
+                } else {
+                    logger.warn("Circuit to the remote api opened: {} of the last {} calls failed; refusing calls for {}ms",
+                        windowFailures, windowCount, TimeUnit.NANOSECONDS.toMillis(openNanos));
+                }
+                break;
+            case HALF_OPEN:
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+                logger.info("Circuit to the remote api is half-open; letting {} trial calls through", halfOpenCalls);
+                break;
+            default:
+                windowNext = 0;
+                windowCount = 0;
+                windowFailures = 0;
+                logger.info("Circuit to the remote api closed");
+        }
+        metrics.recordCircuitTransition(next);
+    }
+    //#endregion
+}
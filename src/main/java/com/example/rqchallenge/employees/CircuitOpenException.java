@@ -0,0 +1,21 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * Thrown when an upstream call is refused because the circuit breaker is open.  The call was never sent.
+ */
+public class CircuitOpenException extends UpstreamUnavailableException {
+
+    private final long retryAfterMillis;
+
+    public CircuitOpenException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return how long until the circuit lets trial calls through again
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
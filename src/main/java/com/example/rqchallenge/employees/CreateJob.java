@@ -0,0 +1,118 @@
+package com.example.rqchallenge.employees;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * State of one asynchronous create, as the job status endpoint reports it.  status_code is the http status the create would have
+ * got as a synchronous request, set once the job has finished; employee_id is set on success and error on failure.
+ *
+ * A job handed out by EmployeeCreateQueue is never changed afterwards; every step of the job is a new instance.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class CreateJob {
+    private String id;
+    private CreateJobStatus status;
+    private Integer statusCode;
+    private String employeeId;
+    private String error;
+    private long submittedAt;
+    private Long finishedAt;
+
+    public CreateJob() {
+    }
+
+    private CreateJob(String id, CreateJobStatus status, Integer statusCode, String employeeId, String error, long submittedAt, Long finishedAt) {
+        this.id = id;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.employeeId = employeeId;
+        this.error = error;
+        this.submittedAt = submittedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public static CreateJob queued(String id, long submittedAt) {
+        return new CreateJob(id, CreateJobStatus.QUEUED, null, null, null, submittedAt, null);
+    }
+
+    public CreateJob running() {
+        return new CreateJob(id, CreateJobStatus.RUNNING, null, null, null, submittedAt, null);
+    }
+
+    public CreateJob succeeded(String employeeId, long finishedAt) {
+        return new CreateJob(id, CreateJobStatus.SUCCEEDED, 200, employeeId, null, submittedAt, finishedAt);
+    }
+
+    public CreateJob failed(int statusCode, String error, long finishedAt) {
+        return new CreateJob(id, CreateJobStatus.FAILED, statusCode, null, error, submittedAt, finishedAt);
+    }
+
+    public CreateJob unknown(int statusCode, String error, long finishedAt) {
+        return new CreateJob(id, CreateJobStatus.UNKNOWN, statusCode, null, error, submittedAt, finishedAt);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public CreateJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CreateJobStatus status) {
+        this.status = status;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Epoch millis.
+     */
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    /**
+     * Epoch millis, or null while the job has not finished.
+     */
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.rqchallenge.employees;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only log of asynchronous creates, so jobs that were answered with a 202 survive a restart.
+ *
+ * The log holds one json object per line:
+ *
+ * {"job": {...}, "input": {...}}   a job was accepted; forced to disk before the 202 is sent
+ * {"job": {...}}                   a job finished
+ *
+ * A job with an accepted line and no finished line is still pending.  A line that does not parse - the tail of a write cut short by
+ * a crash - is skipped.  rewrite replaces the log with only the lines still needed, through a temporary sibling moved into place;
+ * EmployeeCreateQueue rewrites the log once it has read it on startup, so a torn tail never has new lines appended to it.
+ */
+public class CreateJobJournal {
+
+    private static final TypeReference<Map<String, Object>> INPUT_TYPE = new TypeReference<>() {};
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+    private int lines;
+
+    Logger logger = LoggerFactory.getLogger(CreateJobJournal.class);
+
+    /**
+     * A job that was accepted but has not finished, with the input it is to be created from.
+     */
+    public static class Entry {
+        private final CreateJob job;
+        private final Map<String, Object> input;
+
+        public Entry(CreateJob job, Map<String, Object> input) {
+            this.job = job;
+            this.input = input;
+        }
+
+        public CreateJob getJob() {
+            return job;
+        }
+
+        public Map<String, Object> getInput() {
+            return input;
+        }
+    }
+
+    /**
+     * What was read back from the log, each list in the order the jobs were accepted.
+     */
+    public static class Replay {
+        private final List<Entry> pending;
+        private final List<CreateJob> finished;
+
+        Replay(List<Entry> pending, List<CreateJob> finished) {
+            this.pending = pending;
+            this.finished = finished;
+        }
+
+        public List<Entry> getPending() {
+            return pending;
+        }
+
+        public List<CreateJob> getFinished() {
+            return finished;
+        }
+    }
+
+    /**
+     * @param path where the log is kept, or null to keep jobs in memory only
+     */
+    public CreateJobJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    public static CreateJobJournal disabled() {
+        return new CreateJobJournal(null, null);
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Records an accepted job and forces it to disk.
+     *
+     * @throws UncheckedIOException when the job could not be recorded, in which case it must not be accepted
+     */
+    public synchronized void appendAccepted(CreateJob job, Map<String, Object> input) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("job", job);
+            line.put("input", input);
+            append(line);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not record create job " + job.getId(), e);
+        }
+    }
+
+    /**
+     * Records a finished job.  Not forced to disk: if the line is lost the job is sent again after a restart.  Failures are logged
+     * and otherwise ignored for the same reason.
+     */
+    public synchronized void appendFinished(CreateJob job) {
+        if (path == null) {
+            return;
+        }
+        try {
+            append(Map.of("job", job));
+        } catch (IOException e) {
+            logger.warn("Could not record that create job {} finished: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return lines appended since the log was last rewritten
+     */
+    public synchronized int getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the jobs in the log; empty when there is no log
+     */
+    public synchronized Replay read() {
+        Map<String, Entry> pending = new LinkedHashMap<>();
+        Map<String, CreateJob> finished = new LinkedHashMap<>();
+        if (path == null) {
+            return new Replay(new ArrayList<>(), new ArrayList<>());
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    CreateJob job = objectMapper.treeToValue(node.get("job"), CreateJob.class);
+                    if (node.hasNonNull("input")) {
+                        pending.put(job.getId(), new Entry(job, objectMapper.convertValue(node.get("input"), INPUT_TYPE)));
+                    } else {
+                        pending.remove(job.getId());
+                        finished.put(job.getId(), job);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Skipping a create job log line that could not be read: {}", e.getMessage());
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing was ever queued
+        } catch (IOException e) {
+            logger.warn("Could not read the create job log {}: {}", path, e.getMessage());
+        }
+        return new Replay(new ArrayList<>(pending.values()), new ArrayList<>(finished.values()));
+    }
+
+    /**
+     * Replaces the log with the given jobs, dropping the lines of jobs no longer kept.  Pending lines are written before finished
+     * ones, so a job that finished while the caller was collecting them, and so is in both, reads back as finished.
+     */
+    public synchronized void rewrite(Collection<Entry> pending, Collection<CreateJob> finished) {
+        if (path == null) {
+            return;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            closeChannel();
+            try (FileChannel rewritten = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Entry entry : pending) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("job", entry.getJob());
+                    line.put("input", entry.getInput());
+                    write(rewritten, line);
+                }
+                for (CreateJob job : finished) {
+                    write(rewritten, Map.of("job", job));
+                }
+                rewritten.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lines = 0;
+        } catch (IOException e) {
+            logger.warn("Could not rewrite the create job log {}: {}", path, e.getMessage());
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            closeChannel();
+        } catch (IOException e) {
+            logger.warn("Could not close the create job log {}: {}", path, e.getMessage());
+        }
+    }
+
+    // #region private methods
+    private void append(Map<String, Object> line) throws IOException {
+        if (channel == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        write(channel, line);
+        lines++;
+    }
+
+    private void write(FileChannel target, Map<String, Object> line) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(line);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+    //#endregion
+}
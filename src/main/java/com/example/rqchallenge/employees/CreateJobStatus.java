@@ -0,0 +1,17 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * Where an asynchronous create is: waiting in the queue, being sent to the remote api, or finished one way or the other.  UNKNOWN
+ * is a create that may have reached the remote api but got no answer in time, so whether the employee exists is not known.
+ */
+public enum CreateJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    UNKNOWN;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == UNKNOWN;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * Thrown when an asynchronous create is refused because the create queue already holds as many jobs as it may.
+ * Nothing was queued or sent to the remote api.  This is back-pressure from our own queue, not a sign of trouble with the remote api,
+ * so it is kept apart from UpstreamUnavailableException.
+ */
+public class CreateQueueFullException extends RuntimeException {
+
+    public CreateQueueFullException(String message) {
+        super(message);
+    }
+}
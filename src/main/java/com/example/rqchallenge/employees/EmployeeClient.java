@@ -2,6 +2,8 @@ package com.example.rqchallenge.employees;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,7 +15,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
 import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
 
-@FeignClient(name = "DummyRestApi", url = "https://dummy.restapiexample.com/api/v1")
+/**
+ * Feign client for the dummy api.  Not primary - the app talks to GuardedEmployeeClient, which wraps this one.
+ *
+ * The async variants are what the request path uses.  Feign leaves default methods alone, so here they simply run the blocking call
+ * and hand back its outcome; GuardedEmployeeClient overrides them to run on the RetryScheduler without holding the caller's thread.
+ */
+@FeignClient(name = "DummyRestApi", url = "${employees.remote.url:https://dummy.restapiexample.com/api/v1}", primary = false, qualifiers = "remoteEmployeeClient")
 public interface EmployeeClient {
 
     @GetMapping(value = "/employees/")
@@ -27,4 +35,28 @@ public interface EmployeeClient {
 
     @DeleteMapping("/delete/{id}")
     BaseRemoteDto<String> delete(@PathVariable("id") String id);
+
+    default CompletableFuture<BaseRemoteDto<List<Employee>>> findAllAsync() {
+        return completed(this::findAll);
+    }
+
+    default CompletableFuture<BaseRemoteDto<Employee>> getByIdAsync(String id) {
+        return completed(() -> getById(id));
+    }
+
+    default CompletableFuture<BaseRemoteDto<CreatedEmployee>> createAsync(Map<String, Object> employeeInput) {
+        return completed(() -> create(employeeInput));
+    }
+
+    default CompletableFuture<BaseRemoteDto<String>> deleteAsync(String id) {
+        return completed(() -> delete(id));
+    }
+
+    private static <T> CompletableFuture<T> completed(Supplier<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
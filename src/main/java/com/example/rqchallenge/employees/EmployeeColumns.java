@@ -0,0 +1,265 @@
+package com.example.rqchallenge.employees;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Struct-of-arrays store of an employee list: one primitive array per field instead of one Employee object per row.
+ *
+ * Ids that are plain decimal numbers - all of them, for the dummy api - live in a long[] and are found through an open addressing
+ * table of ints; anything else falls back to a map.  Ages and salaries are int[] with a bit set marking the missing ones, and names
+ * are a single UTF-8 byte column.  Employee objects are only materialized when a row leaves the app, through employeeAt or asList.
+ *
+ * Instances are immutable; withAppended and withoutRow return a new store.
+ */
+public class EmployeeColumns {
+
+    private static final long NOT_NUMERIC = Long.MIN_VALUE;
+    private static final int MAX_NUMERIC_ID_DIGITS = 18;
+
+    private final long[] numericIds;
+    private final Map<Integer, String> otherIds;
+    private final StringColumn names;
+    private final int[] ages;
+    private final BitSet missingAges;
+    private final int[] salaries;
+    private final BitSet missingSalaries;
+
+    private final int[] idSlots;
+    private final Map<String, Integer> otherRowsById;
+
+    private EmployeeColumns(long[] numericIds, Map<Integer, String> otherIds, StringColumn names,
+                            int[] ages, BitSet missingAges, int[] salaries, BitSet missingSalaries) {
+        this.numericIds = numericIds;
+        this.otherIds = otherIds;
+        this.names = names;
+        this.ages = ages;
+        this.missingAges = missingAges;
+        this.salaries = salaries;
+        this.missingSalaries = missingSalaries;
+        this.idSlots = buildIdSlots(numericIds);
+        this.otherRowsById = indexOtherIds(otherIds);
+    }
+
+    public static EmployeeColumns of(List<Employee> employees) {
+        int size = employees.size();
+        long[] numericIds = new long[size];
+        Map<Integer, String> otherIds = new HashMap<>();
+        String[] names = new String[size];
+        int[] ages = new int[size];
+        BitSet missingAges = new BitSet(size);
+        int[] salaries = new int[size];
+        BitSet missingSalaries = new BitSet(size);
+
+        for (int row = 0; row < size; row++) {
+            Employee employee = employees.get(row);
+            numericIds[row] = numericId(employee.getId());
+            if (numericIds[row] == NOT_NUMERIC && employee.getId() != null) {
+                otherIds.put(row, employee.getId());
+            }
+            names[row] = employee.getEmployeeName();
+            setOrMark(ages, missingAges, row, employee.getEmployeeAge());
+            setOrMark(salaries, missingSalaries, row, employee.getEmployeeSalary());
+        }
+        return new EmployeeColumns(numericIds, otherIds, StringColumn.of(Arrays.asList(names)), ages, missingAges, salaries, missingSalaries);
+    }
+
+    public int size() {
+        return numericIds.length;
+    }
+
+    public String id(int row) {
+        return numericIds[row] == NOT_NUMERIC ? otherIds.get(row) : Long.toString(numericIds[row]);
+    }
+
+    public String name(int row) {
+        return names.get(row);
+    }
+
+    public Integer age(int row) {
+        return missingAges.get(row) ? null : ages[row];
+    }
+
+    public Integer salary(int row) {
+        return missingSalaries.get(row) ? null : salaries[row];
+    }
+
+    public boolean hasAge(int row) {
+        return !missingAges.get(row);
+    }
+
+    /**
+     * Age of a row without boxing; only meaningful when hasAge(row).
+     */
+    public int ageAt(int row) {
+        return ages[row];
+    }
+
+    public boolean hasSalary(int row) {
+        return !missingSalaries.get(row);
+    }
+
+    /**
+     * Salary of a row without boxing; only meaningful when hasSalary(row).
+     */
+    public int salaryAt(int row) {
+        return salaries[row];
+    }
+
+    public Employee employeeAt(int row) {
+        return new Employee(id(row), name(row), age(row), salary(row));
+    }
+
+    /**
+     * @return the first row holding the id, or -1 when no row does
+     */
+    public int rowOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        long numericId = numericId(id);
+        if (numericId == NOT_NUMERIC) {
+            Integer row = otherRowsById.get(id);
+            return row == null ? -1 : row;
+        }
+
+        int mask = idSlots.length - 1;
+        for (int slot = hash(numericId) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+            if (numericIds[idSlots[slot] - 1] == numericId) {
+                return idSlots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read-only list view that materializes each Employee as it is read, so handing the full list to a serializer never holds
+     * more than one of them at a time.
+     */
+    public List<Employee> asList() {
+        return new EmployeeListView();
+    }
+
+    public EmployeeColumns withAppended(Employee employee) {
+        int row = size();
+        long[] newNumericIds = Arrays.copyOf(numericIds, row + 1);
+        newNumericIds[row] = numericId(employee.getId());
+        Map<Integer, String> newOtherIds = new HashMap<>(otherIds);
+        if (newNumericIds[row] == NOT_NUMERIC && employee.getId() != null) {
+            newOtherIds.put(row, employee.getId());
+        }
+
+        int[] newAges = Arrays.copyOf(ages, row + 1);
+        BitSet newMissingAges = (BitSet) missingAges.clone();
+        setOrMark(newAges, newMissingAges, row, employee.getEmployeeAge());
+        int[] newSalaries = Arrays.copyOf(salaries, row + 1);
+        BitSet newMissingSalaries = (BitSet) missingSalaries.clone();
+        setOrMark(newSalaries, newMissingSalaries, row, employee.getEmployeeSalary());
+
+        return new EmployeeColumns(newNumericIds, newOtherIds, names.withAppended(employee.getEmployeeName()),
+            newAges, newMissingAges, newSalaries, newMissingSalaries);
+    }
+
+    public EmployeeColumns withoutRow(int row) {
+        Map<Integer, String> newOtherIds = new HashMap<>();
+        otherIds.forEach((otherRow, id) -> {
+            if (otherRow != row) {
+                newOtherIds.put(otherRow > row ? otherRow - 1 : otherRow, id);
+            }
+        });
+
+        return new EmployeeColumns(removeAt(numericIds, row), newOtherIds, names.withoutRow(row),
+            removeAt(ages, row), RowArrays.withoutBit(missingAges, row), removeAt(salaries, row), RowArrays.withoutBit(missingSalaries, row));
+    }
+
+    // #region private methods
+    /**
+     * @return the id as a long when it is a plain decimal number that prints back to the same string, otherwise NOT_NUMERIC
+     */
+    private static long numericId(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_NUMERIC_ID_DIGITS || (id.length() > 1 && id.charAt(0) == '0')) {
+            return NOT_NUMERIC;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_NUMERIC;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void setOrMark(int[] values, BitSet missing, int row, Integer value) {
+        if (value == null) {
+            missing.set(row);
+        } else {
+            values[row] = value;
+        }
+    }
+
+    private static int[] buildIdSlots(long[] numericIds) {
+        // Power of two with at least twice as many slots as rows; a slot holds row + 1 so zero can mean empty
+        int[] slots = new int[Integer.highestOneBit(Math.max(numericIds.length, 1) * 2 - 1) << 1];
+        int mask = slots.length - 1;
+        for (int row = 0; row < numericIds.length; row++) {
+            if (numericIds[row] == NOT_NUMERIC) {
+                continue;
+            }
+            int slot = hash(numericIds[row]) & mask;
+            while (slots[slot] != 0 && numericIds[slots[slot] - 1] != numericIds[row]) {
+                slot = (slot + 1) & mask;
+            }
+            // The first row with an id wins, like the list lookups it replaces
+            if (slots[slot] == 0) {
+                slots[slot] = row + 1;
+            }
+        }
+        return slots;
+    }
+
+    private static Map<String, Integer> indexOtherIds(Map<Integer, String> otherIds) {
+        Map<String, Integer> rowsById = new HashMap<>(otherIds.size() * 2);
+        otherIds.forEach((row, id) -> rowsById.merge(id, row, Math::min));
+        return rowsById;
+    }
+
+    private static int hash(long numericId) {
+        long mixed = numericId * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private static long[] removeAt(long[] values, int row) {
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, row);
+        System.arraycopy(values, row + 1, result, row, result.length - row);
+        return result;
+    }
+
+    private static int[] removeAt(int[] values, int row) {
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, row);
+        System.arraycopy(values, row + 1, result, row, result.length - row);
+        return result;
+    }
+
+    private class EmployeeListView extends AbstractList<Employee> implements RandomAccess {
+        @Override
+        public Employee get(int row) {
+            return employeeAt(Objects.checkIndex(row, size()));
+        }
+
+        @Override
+        public int size() {
+            return EmployeeColumns.this.size();
+        }
+    }
+    //#endregion
+}
@@ -1,107 +1,355 @@
 package com.example.rqchallenge.employees;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.http.ResponseEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 public class EmployeeController implements IEmployeeController {
 
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
     private final EmployeeService employeeService;
+    private final EmployeeCreateQueue createQueue;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter employeeWriter;
+    // Snapshot versions restart from 1 with the process, so tags also carry a random per-process epoch that no restart can repeat
+    private final String etagEpoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
     Logger logger = LoggerFactory.getLogger(EmployeeController.class); 
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeCreateQueue createQueue, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.createQueue = createQueue;
+        this.objectMapper = objectMapper;
+        // Flushing after every employee would turn each one into its own network write
+        this.employeeWriter = objectMapper.writerFor(Employee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
-    public ResponseEntity<List<Employee>> getAllEmployees() {
-        try {
-            List<Employee> employees = employeeService.getAllEmployees();
+    public CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return respond("getAllEmployees", false, employeeService::getAllEmployees, result -> {
+            String etag = etagOf(result);
+            if (matchesAny(ifNoneMatch, etag)) {
+                logger.info("getAllEmployees:: employees have not changed since {}", etag);
+                return notModified(result, etag);
+            }
+            List<Employee> employees = result.getValue();
             logger.info("getAllEmployees:: {} employees were found", employees.size());
-            return ResponseEntity.ok(employees);
-        } catch (Exception e) {
-            logger.error("getAllEmployees:: An exception has been caught.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+            return okWithStaleness(result).eTag(etag).body(employees);
+        });
     }
 
-    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString) {
-        try {
-            List<Employee> employees = employeeService.getEmployeesByNameSearch(searchString);
-            logger.info("getEmployeesByNameSearch:: {} employees with name {} were found", employees.size(), searchString);
-            return ResponseEntity.ok(employees);
-        } catch (Exception e) {
-            logger.error("getEmployeesByNameSearch:: An exception has been caught.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployeesAsNdjson() {
+        return respond("streamAllEmployeesAsNdjson", false, employeeService::getAllEmployees, result -> {
+            List<Employee> employees = result.getValue();
+            logger.info("streamAllEmployeesAsNdjson:: streaming {} employees", employees.size());
+            return okWithStaleness(result)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> writeNdjson(employees, outputStream));
+        });
     }
 
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable String id) {
-        try {
-            Employee employee = employeeService.getEmployeeById(id);
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployeesAsJsonArray() {
+        return respond("streamAllEmployeesAsJsonArray", false, employeeService::getAllEmployees, result -> {
+            List<Employee> employees = result.getValue();
+            logger.info("streamAllEmployeesAsJsonArray:: streaming {} employees", employees.size());
+            return okWithStaleness(result)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> writeJsonArray(employees, outputStream));
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<EmployeePage>> getEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort, @RequestParam(defaultValue = "asc") String direction) {
+        return respond("getEmployeesPage", true,
+            () -> employeeService.getEmployeesPage(limit, cursor, EmployeeSortField.fromParameter(sort), SortDirection.fromParameter(direction)),
+            result -> {
+                EmployeePage page = result.getValue();
+                logger.info("getEmployeesPage:: {} employees sorted by {} {} have been returned", page.getEmployees().size(), sort, direction);
+                return okWithStaleness(result).body(page);
+            });
+    }
+
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString, @RequestParam(defaultValue = "exact") String mode) {
+        return respond("getEmployeesByNameSearch", true, () -> employeeService.getEmployeesByNameSearch(searchString, NameSearchMode.fromParameter(mode)), result -> {
+            List<Employee> employees = result.getValue();
+            logger.info("getEmployeesByNameSearch:: {} employees with name {} ({} match) were found", employees.size(), searchString, mode);
+            return okWithStaleness(result).body(employees);
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id) {
+        return respond("getEmployeeById", false, () -> employeeService.getEmployeeById(id), result -> {
+            Employee employee = result.getValue();
             if (employee != null) {
                 logger.info("getEmployeeById:: employee with Id: {} has been successfully found", id);
-                return ResponseEntity.ok(employee);
+                return okWithStaleness(result).body(employee);
             } else {
                 logger.info("getEmployeeById:: employee with Id: {} was not found", id);
                 return ResponseEntity.notFound().build();
             }
-        } catch (Exception e) {
-            logger.error("getEmployeeById:: An exception has been caught.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        });
     }
 
-    public ResponseEntity<Integer> getHighestSalaryOfEmployees() {
-        try {
-            Integer highestSalary = employeeService.getHighestSalaryOfEmployees();
+    public CompletableFuture<ResponseEntity<Map<String, BatchItemResult<Employee>>>> getEmployeesByIds(@RequestBody List<String> ids) {
+        return respond("getEmployeesByIds", true, () -> employeeService.getEmployeesByIds(ids), result -> {
+            Map<String, BatchItemResult<Employee>> results = result.getValue();
+            long found = results.values().stream().filter(item -> item.getStatus() == HttpStatus.OK.value()).count();
+            logger.info("getEmployeesByIds:: {} of {} employees have been successfully found", found, results.size());
+            return okWithStaleness(result).body(results);
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return respond("getHighestSalaryOfEmployees", false, employeeService::getHighestSalaryOfEmployees, result -> {
+            String etag = etagOf(result);
+            if (matchesAny(ifNoneMatch, etag)) {
+                logger.info("getHighestSalaryOfEmployees:: the highest salary has not changed since {}", etag);
+                return notModified(result, etag);
+            }
+            Integer highestSalary = result.getValue();
             logger.info("getHighestSalaryOfEmployees: successfully returned the highest salary.");
-            return ResponseEntity.ok(highestSalary);
-        } catch (Exception e) {
-            logger.error("getHighestSalaryOfEmployees:: An exception has been caught.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+            return okWithStaleness(result).eTag(etag).body(highestSalary);
+        });
     }
 
-    public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() {
-        try {
-            List<String> topTenNames = employeeService.getTopTenHighestEarningEmployeeNames();
+    public CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return respond("getTopTenHighestEarningEmployeeNames", false, employeeService::getTopTenHighestEarningEmployeeNames, result -> {
+            String etag = etagOf(result);
+            if (matchesAny(ifNoneMatch, etag)) {
+                logger.info("getTopTenHighestEarningEmployeeNames:: top earners have not changed since {}", etag);
+                return notModified(result, etag);
+            }
+            List<String> topTenNames = result.getValue();
             logger.info("getTopTenHighestEarningEmployeeNames: there were {} top earners found", topTenNames.size());
-            return ResponseEntity.ok(topTenNames);
-        } catch (Exception e) {
-            logger.error("getTopTenHighestEarningEmployeeNames:: An exception has been caught.", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return okWithStaleness(result).eTag(etag).body(topTenNames);
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<EmployeeStatistics>> getStatistics(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return respond("getStatistics", false, employeeService::getStatistics, result -> {
+            String etag = etagOf(result);
+            if (matchesAny(ifNoneMatch, etag)) {
+                logger.info("getStatistics:: statistics have not changed since {}", etag);
+                return notModified(result, etag);
+            }
+            EmployeeStatistics statistics = result.getValue();
+            logger.info("getStatistics:: statistics of {} employees have been returned", statistics.getCount());
+            return okWithStaleness(result).eTag(etag).body(statistics);
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<List<Employee>>> getTopEmployees(@RequestParam(defaultValue = "10") int k, @RequestParam(defaultValue = "salary") String field,
+            @RequestParam(defaultValue = "desc") String direction, @RequestParam(required = false) String name) {
+        return respond("getTopEmployees", true,
+            () -> employeeService.getTopEmployees(k, EmployeeSortField.fromParameter(field), SortDirection.fromParameter(direction), name),
+            result -> {
+                List<Employee> employees = result.getValue();
+                logger.info("getTopEmployees:: {} employees ranked by {} {} have been returned", employees.size(), field, direction);
+                return okWithStaleness(result).body(employees);
+            });
+    }
+
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesBySalaryRange(@RequestParam int min, @RequestParam int max) {
+        return respond("getEmployeesBySalaryRange", true, () -> employeeService.getEmployeesBySalaryRange(min, max), result -> {
+            List<Employee> employees = result.getValue();
+            logger.info("getEmployeesBySalaryRange:: {} employees earning between {} and {} were found", employees.size(), min, max);
+            return okWithStaleness(result).body(employees);
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<?>> createEmployee(@RequestBody Map<String, Object> employeeInput) {
+        CompletableFuture<? extends ResponseEntity<?>> response;
+        if (createQueue.isEnabled()) {
+            response = respond("createEmployee", true, () -> CompletableFuture.completedFuture(createQueue.submit(employeeInput)), job -> {
+                logger.info("createEmployee:: Employee with Name: {} has been queued as job {}", employeeInput.get("employee_name"), job.getId());
+                return ResponseEntity.accepted().location(URI.create("/jobs/" + job.getId())).body(job);
+            });
+        } else {
+            response = respond("createEmployee", true, () -> employeeService.createEmployee(employeeInput), employee -> {
+                logger.info("createEmployee:: Employee with Name: {} has been successfully created", employee.getEmployeeName());
+                return ResponseEntity.ok(employee);
+            });
         }
+        // Either body is typed where it is built; only the shared return type widens to ResponseEntity<?>
+        return response.thenApply(entity -> entity);
     }
 
-    public ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput) {
+    public ResponseEntity<CreateJob> getCreateJob(@PathVariable String jobId) {
         try {
-            Employee employee = employeeService.createEmployee(employeeInput);
-            logger.info("createEmployee:: Employee with Name: {} has been successfully created", employee.getEmployeeName());
-            return ResponseEntity.ok(employee);
-        } catch (IllegalArgumentException e) {
-            logger.error("createEmployee:: An IllegalArgumentException has been caught.", e);
-            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+            CreateJob job = createQueue.getJob(jobId);
+            if (job == null) {
+                logger.info("getCreateJob:: create job {} was not found", jobId);
+                return ResponseEntity.notFound().build();
+            }
+            logger.info("getCreateJob:: create job {} is {}", jobId, job.getStatus());
+            return ResponseEntity.ok(job);
         } catch (Exception e) {
-            logger.error("createEmployee:: An exception has been caught.", e);
+            logger.error("getCreateJob:: An exception has been caught.", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
-    public ResponseEntity<String> deleteEmployeeById(@PathVariable String id) {
-        try {
-            String message = employeeService.deleteEmployeeById(id);
+    public CompletableFuture<ResponseEntity<List<BatchItemResult<Employee>>>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs) {
+        return respond("createEmployees", true, () -> employeeService.createEmployees(employeeInputs), results -> {
+            long created = results.stream().filter(result -> result.getStatus() == HttpStatus.OK.value()).count();
+            logger.info("createEmployees:: {} of {} employees have been successfully created", created, results.size());
+            return ResponseEntity.ok(results);
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id) {
+        return respond("deleteEmployeeById", false, () -> employeeService.deleteEmployeeById(id), message -> {
             logger.info("deleteEmployeeById:: Employee with ID: {} has been successfully deleted", id);
             return ResponseEntity.ok(message);
-        } catch (Exception e) {
-            logger.error("deleteEmployeeById:: Failed to delete employee with ID: {}", id, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        });
+    }
+
+    public CompletableFuture<ResponseEntity<Map<String, BatchItemResult<String>>>> deleteEmployeesByIds(@RequestBody List<String> ids) {
+        return respond("deleteEmployeesByIds", true, () -> employeeService.deleteEmployeesByIds(ids), results -> {
+            long deleted = results.values().stream().filter(result -> result.getStatus() == HttpStatus.OK.value()).count();
+            logger.info("deleteEmployeesByIds:: {} of {} employees have been successfully deleted", deleted, results.size());
+            return ResponseEntity.ok(results);
+        });
+    }
+
+    // #region private methods
+    /**
+     * Starts the service call and turns its outcome into the response once it completes; the request thread goes back to the
+     * container straight away.  A failure thrown while starting the call is answered the same way as one the call completes with.
+     *
+     * @param rejectsInput whether an IllegalArgumentException means the request itself was invalid (422) rather than a bug (500)
+     */
+    private <T, R> CompletableFuture<ResponseEntity<R>> respond(String method, boolean rejectsInput, Supplier<CompletableFuture<T>> call,
+            Function<T, ResponseEntity<R>> onSuccess) {
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.thenApply(onSuccess).exceptionally(failure -> failed(method, rejectsInput, Futures.unwrap(failure)));
+    }
+
+    private <T> ResponseEntity<T> failed(String method, boolean rejectsInput, RuntimeException e) {
+        if (rejectsInput && e instanceof IllegalArgumentException) {
+            logger.error("{}:: An IllegalArgumentException has been caught.", method, e);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        if (e instanceof CreateQueueFullException) {
+            logger.warn("{}:: The create queue is full. {}", method, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (e instanceof UpstreamUnavailableException) {
+            logger.warn("{}:: The remote api is unavailable. {}", method, e.getMessage());
+            return serviceUnavailable((UpstreamUnavailableException) e);
+        }
+        logger.error("{}:: An exception has been caught.", method, e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    }
+
+    /**
+     * 200 that also tells the client, through Age and Warning headers, when the answer came from last-known-good data past the cache ttl.
+     */
+    private ResponseEntity.BodyBuilder okWithStaleness(ReadResult<?> result) {
+        return withStaleness(ResponseEntity.ok(), result);
+    }
+
+    private ResponseEntity.BodyBuilder withStaleness(ResponseEntity.BodyBuilder response, ReadResult<?> result) {
+        if (result.isStale()) {
+            response.header(HttpHeaders.AGE, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(result.getStaleAgeMillis())))
+                .header(HttpHeaders.WARNING, STALE_WARNING);
         }
+        return response;
+    }
+
+    /**
+     * Strong ETag of the snapshot a result was computed from.  Tag and body come from the same snapshot, so a refresh landing
+     * during the request cannot pair a body with another snapshot's tag.
+     */
+    private String etagOf(VersionedResult<?> result) {
+        return "\"" + etagEpoch + "-" + result.getVersion() + "\"";
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so a W/ prefix added by a proxy still matches.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> ResponseEntity<T> notModified(ReadResult<?> result, String etag) {
+        return withStaleness(ResponseEntity.status(HttpStatus.NOT_MODIFIED), result).eTag(etag).build();
+    }
+
+    private <T> ResponseEntity<T> serviceUnavailable(UpstreamUnavailableException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (e instanceof CircuitOpenException) {
+            // Whole seconds, rounded up so the client does not come back just before the circuit lets calls through
+            long retryAfterSeconds = (((CircuitOpenException) e).getRetryAfterMillis() + 999) / 1000;
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+        }
+        return response.build();
+    }
+
+    // Both writers serialize one employee at a time straight into the response stream, so nothing the size of the full payload is
+    // ever buffered; the servlet container flushes to the client as its buffer fills.
+    private void writeNdjson(List<Employee> employees, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            for (Employee employee : employees) {
+                employeeWriter.writeValue(generator, employee);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeJsonArray(List<Employee> employees, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (Employee employee : employees) {
+                employeeWriter.writeValue(generator, employee);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        // The servlet container owns the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
     }
+    //#endregion
 }
@@ -0,0 +1,281 @@
+package com.example.rqchallenge.employees;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.FeignException;
+
+/**
+ * Write-behind queue for creates.  When enabled, POST / validates the input, records the job in the CreateJobJournal and answers 202
+ * straight away; a small pool of workers then sends the queued creates through EmployeeService, so they go through the same rate
+ * limiter, retries and circuit breaker as any other upstream call, and the outcome is kept for the job status endpoint.
+ *
+ * A create refused before it was sent - by the client-side rate limit or the open circuit - is tried again after retryPauseMillis, up
+ * to maxAttempts times, with the worker held meanwhile - during an outage the queue drains no faster than the remote api recovers.
+ * A create that ran out of its deadline may already have reached the remote api, so it is never sent again; the job finishes as
+ * UNKNOWN.  Any other failure finishes the job with the status the synchronous create would have answered with.
+ *
+ * With a journal file configured, jobs still queued when the app stops are sent after the next start.  A job that was being sent when
+ * the app stopped is sent again, so a create can reach the remote api twice; the remote api has no way to make creates idempotent.
+ * Without one, queued jobs live in memory only and are lost on a restart.
+ */
+@Component
+public class EmployeeCreateQueue {
+
+    private final EmployeeService employeeService;
+    private final CreateJobJournal journal;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxAttempts;
+    private final long retryPauseMillis;
+    private final int retainedJobs;
+    private final Executor workers;
+    private final LongSupplier wallClock;
+
+    private final ConcurrentMap<String, CreateJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CreateJobJournal.Entry> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<String> finishedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+
+    Logger logger = LoggerFactory.getLogger(EmployeeCreateQueue.class);
+
+    @Autowired
+    public EmployeeCreateQueue(EmployeeService employeeService, ObjectMapper objectMapper, EmployeeMetrics metrics,
+                               @Value("${employees.create-queue.enabled:false}") boolean enabled,
+                               @Value("${employees.create-queue.capacity:10000}") int capacity,
+                               @Value("${employees.create-queue.workers:4}") int workers,
+                               @Value("${employees.create-queue.max-attempts:5}") int maxAttempts,
+                               @Value("${employees.create-queue.retry-pause-millis:1000}") long retryPauseMillis,
+                               @Value("${employees.create-queue.retained-jobs:100000}") int retainedJobs,
+                               @Value("${employees.create-queue.file:}") String file) {
+        this(employeeService,
+            new CreateJobJournal(file == null || file.isBlank() ? null : Path.of(file), objectMapper),
+            enabled, capacity, maxAttempts, retryPauseMillis, retainedJobs,
+            enabled ? Executors.newFixedThreadPool(workers, RetryScheduler.daemonThreads("employee-create")) : Runnable::run,
+            System::currentTimeMillis);
+        if (enabled) {
+            metrics.registerCreateQueue(this);
+        }
+    }
+
+    public EmployeeCreateQueue(EmployeeService employeeService, CreateJobJournal journal, boolean enabled, int capacity, int maxAttempts,
+                               long retryPauseMillis, int retainedJobs, Executor workers, LongSupplier wallClock) {
+        this.employeeService = employeeService;
+        this.journal = journal;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryPauseMillis = retryPauseMillis;
+        this.retainedJobs = retainedJobs;
+        this.workers = workers;
+        this.wallClock = wallClock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the input rather than creating the employee straight away.
+     *
+     * @return the queued job
+     * @throws IllegalArgumentException  when the input could never be created
+     * @throws CreateQueueFullException when capacity jobs are already waiting
+     */
+    public CreateJob submit(Map<String, Object> employeeInput) {
+        employeeService.requireValidEmployeeInput(employeeInput);
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            throw new CreateQueueFullException("The create queue already holds " + capacity + " jobs");
+        }
+
+        CreateJobJournal.Entry entry = new CreateJobJournal.Entry(CreateJob.queued(UUID.randomUUID().toString(), wallClock.getAsLong()),
+            new LinkedHashMap<>(employeeInput));
+        String id = entry.getJob().getId();
+        // Known to the queue before it is in the journal, so a journal rewrite running meanwhile cannot drop it
+        pending.put(id, entry);
+        jobs.put(id, entry.getJob());
+        try {
+            journal.appendAccepted(entry.getJob(), entry.getInput());
+        } catch (RuntimeException e) {
+            pending.remove(id);
+            jobs.remove(id);
+            queued.decrementAndGet();
+            throw e;
+        }
+
+        workers.execute(() -> run(entry));
+        return entry.getJob();
+    }
+
+    /**
+     * @return the job with the given id, or null when there is none or it finished too long ago to be kept
+     */
+    public CreateJob getJob(String id) {
+        return id == null ? null : jobs.get(id);
+    }
+
+    /**
+     * @return jobs waiting or being sent
+     */
+    public int getQueuedJobs() {
+        return queued.get();
+    }
+
+    /**
+     * Picks up the jobs the journal holds from before a restart: finished ones for the status endpoint, pending ones to be sent.
+     */
+    @PostConstruct
+    public void restore() {
+        if (!enabled || !journal.isEnabled()) {
+            return;
+        }
+
+        CreateJobJournal.Replay replay = journal.read();
+        for (CreateJob job : replay.getFinished()) {
+            jobs.put(job.getId(), job);
+            retain(job.getId());
+        }
+        for (CreateJobJournal.Entry entry : replay.getPending()) {
+            pending.put(entry.getJob().getId(), entry);
+            jobs.put(entry.getJob().getId(), entry.getJob());
+            queued.incrementAndGet();
+        }
+        compact();
+
+        if (!replay.getPending().isEmpty()) {
+            logger.info("Resuming {} queued creates from before the restart", replay.getPending().size());
+        }
+        for (CreateJobJournal.Entry entry : replay.getPending()) {
+            workers.execute(() -> run(entry));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers instanceof ExecutorService) {
+            ((ExecutorService) workers).shutdownNow();
+        }
+        journal.close();
+    }
+
+    // #region private methods
+    private void run(CreateJobJournal.Entry entry) {
+        CreateJob job = entry.getJob();
+        jobs.put(job.getId(), job.running());
+
+        CreateJob finished = create(job, entry.getInput());
+        if (finished == null) {
+            // Interrupted by shutdown; the job is still pending in the journal and is sent after the next start
+            return;
+        }
+
+        // Out of pending before it is published as finished: a compaction in between then finds it in neither, and the finished
+        // line appended below follows the rewrite, rather than the rewrite recording the job as still to be sent
+        pending.remove(job.getId());
+        jobs.put(job.getId(), finished);
+        journal.appendFinished(finished);
+        queued.decrementAndGet();
+        retain(job.getId());
+
+        // Two lines per job; once the journal is well past what is still kept, most of it is dead weight
+        if (journal.getLines() > 2 * (capacity + retainedJobs)) {
+            compact();
+        }
+    }
+
+    /**
+     * @return the finished job, or null when the worker was interrupted before it finished
+     */
+    private CreateJob create(CreateJob job, Map<String, Object> employeeInput) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Employee employee = Futures.get(employeeService.createEmployee(employeeInput));
+                return job.succeeded(employee.getId(), wallClock.getAsLong());
+            } catch (InterruptedException e) {
+                // The create keeps running; its outcome is not recorded, so the job is sent again after the next start
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (RateLimitExceededException | CircuitOpenException e) {
+                // Refused before it was sent, so sending it again cannot create the employee twice
+                if (attempt >= maxAttempts) {
+                    return job.failed(503, e.getMessage(), wallClock.getAsLong());
+                }
+                logger.warn("Create job {} could not reach the remote api (attempt {} of {}): {}", job.getId(), attempt, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(retryPauseMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            } catch (RetryDeadlineExceededException e) {
+                logger.warn("Create job {} got no answer in time and may have been created: {}", job.getId(), e.getMessage());
+                return job.unknown(504, e.getMessage(), wallClock.getAsLong());
+            } catch (UpstreamUnavailableException e) {
+                return job.failed(503, e.getMessage(), wallClock.getAsLong());
+            } catch (FeignException e) {
+                // No status means no response came back at all
+                return job.failed(e.status() > 0 ? e.status() : 502, e.getMessage(), wallClock.getAsLong());
+            } catch (IllegalArgumentException e) {
+                return job.failed(422, e.getMessage(), wallClock.getAsLong());
+            } catch (RuntimeException e) {
+                logger.error("Create job {} failed.", job.getId(), e);
+                return job.failed(500, e.getMessage(), wallClock.getAsLong());
+            }
+        }
+    }
+
+    private void retain(String id) {
+        finishedOrder.add(id);
+        if (finishedCount.incrementAndGet() > retainedJobs) {
+            String oldest = finishedOrder.poll();
+            if (oldest != null) {
+                finishedCount.decrementAndGet();
+                jobs.remove(oldest);
+            }
+        }
+    }
+
+    private void compact() {
+        // Holding the journal's lock keeps appends out until the rewrite is done, so nothing recorded meanwhile is lost
+        synchronized (journal) {
+            List<CreateJobJournal.Entry> stillPending = new ArrayList<>(pending.values());
+            stillPending.sort(Comparator.comparingLong(entry -> entry.getJob().getSubmittedAt()));
+            List<CreateJob> finished = new ArrayList<>();
+            for (CreateJob job : jobs.values()) {
+                if (job.getStatus().isFinished()) {
+                    finished.add(job);
+                }
+            }
+            finished.sort(Comparator.comparingLong(CreateJob::getSubmittedAt));
+            journal.rewrite(stillPending, finished);
+        }
+    }
+    //#endregion
+}
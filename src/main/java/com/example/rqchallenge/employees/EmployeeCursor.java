@@ -0,0 +1,105 @@
+package com.example.rqchallenge.employees;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in a sorted employee listing: the sort it belongs to plus the sort value and id of the last employee on the page.
+ *
+ * Because it records where the page ended rather than how many rows came before it, a cursor stays valid when the employee list is
+ * refreshed between pages - the next page simply starts after that employee, wherever it now sits.
+ */
+public class EmployeeCursor {
+
+    private static final String SEPARATOR = "\n";
+    private static final String PRESENT = "=";
+    private static final String MISSING = "-";
+    private static final char LENGTH_END = ':';
+
+    private final EmployeeSortField sortField;
+    private final SortDirection direction;
+    private final String id;
+    private final String value;
+
+    public EmployeeCursor(EmployeeSortField sortField, SortDirection direction, String id, String value) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static EmployeeCursor after(Employee employee, EmployeeSortField sortField, SortDirection direction) {
+        return new EmployeeCursor(sortField, direction, employee.getId(), sortField.valueOf(employee));
+    }
+
+    public EmployeeSortField getSortField() {
+        return sortField;
+    }
+
+    public SortDirection getDirection() {
+        return direction;
+    }
+
+    /**
+     * @return a stand-in employee sitting exactly at this cursor's position in its sort order
+     */
+    public Employee toProbe() {
+        return sortField.probe(value, id);
+    }
+
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + direction.name() + SEPARATOR + mark(id) + mark(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the cursor was not produced by encode
+     */
+    public static EmployeeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // Sort and direction are enum names, which never hold the separator; id and value come from the remote api and may hold
+            // anything, so they are length-prefixed rather than split on it
+            String[] sort = raw.split(SEPARATOR, 3);
+            if (sort.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            int[] position = {0};
+            String id = unmark(sort[2], position);
+            String value = unmark(sort[2], position);
+            if (position[0] != sort[2].length()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new EmployeeCursor(EmployeeSortField.valueOf(sort[0]), SortDirection.valueOf(sort[1]), id, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    // #region private methods
+    private static String mark(String part) {
+        return part == null ? MISSING : PRESENT + part.length() + LENGTH_END + part;
+    }
+
+    /**
+     * Reads the part marked at position[0] and moves position[0] past it.
+     */
+    private static String unmark(String parts, int[] position) {
+        int start = position[0];
+        if (parts.startsWith(MISSING, start)) {
+            position[0] = start + MISSING.length();
+            return null;
+        }
+        int lengthEnd = parts.indexOf(LENGTH_END, start);
+        if (!parts.startsWith(PRESENT, start) || lengthEnd < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        int length = Integer.parseInt(parts.substring(start + PRESENT.length(), lengthEnd));
+        if (length < 0 || length > parts.length() - lengthEnd - 1) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        position[0] = lengthEnd + 1 + length;
+        return parts.substring(lengthEnd + 1, position[0]);
+    }
+    //#endregion
+}
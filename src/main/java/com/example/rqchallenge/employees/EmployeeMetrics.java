@@ -0,0 +1,201 @@
+package com.example.rqchallenge.employees;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters for the work this app does against the remote api.  Endpoint latency is covered by Spring Boot's own http.server.requests.
+ *
+ * employees.upstream.requests     timer per upstream attempt (retries count separately), tagged by operation and status
+ * employees.upstream.retries      counter of attempts that were retried, tagged by operation
+ * employees.upstream.attempts     counter of upstream attempts, first and retries alike
+ * employees.upstream.exhausted    counter of calls that gave up because they ran out of attempts or deadline
+ * employees.upstream.backoff      counter of milliseconds spent backing off between attempts
+ * employees.upstream.coalesced   counter of reads answered by sharing another caller's in-flight call, tagged by operation
+ * employees.ratelimit.current    gauge of the learned client-side limit on calls to the remote api, in calls per second
+ * employees.ratelimit.delayed    counter of calls that waited for a rate limit slot
+ * employees.ratelimit.rejected   counter of calls refused without being sent because the wait for a slot was too long
+ * employees.ratelimit.throttled  counter of 429 answers from the remote api
+ * employees.stale.fallbacks       counter of reads answered from last-known-good data past the cache ttl, tagged by operation
+ * employees.cache.hits            counter of snapshot reads answered from memory, tagged fresh or stale
+ * employees.cache.misses          counter of snapshot reads that waited for the list to load, their own load or a shared one
+ * employees.cache.refreshes       counter of background snapshot refreshes, tagged by outcome
+ * employees.circuit.state         gauge per circuit breaker state, 1 for the current state and 0 for the others, tagged by state
+ * employees.circuit.failure.rate  gauge of the failure share in the circuit breaker window, in percent
+ * employees.circuit.transitions   counter of circuit breaker state changes, tagged by the state entered
+ * employees.circuit.rejections    counter of upstream calls refused by the open circuit, tagged by operation
+ * employees.create.queue.depth    gauge of creates accepted with a 202 and not yet finished, when the create queue is enabled
+ *
+ * Meters are registered once and then looked up from a local map, so recording on the success path does not allocate.
+ */
+@Component
+public class EmployeeMetrics {
+
+    static final String STATUS_SUCCESS = "2xx";
+    static final String STATUS_IO_ERROR = "IO_ERROR";
+    static final String STATUS_UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> failureTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> retryCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> fallbackCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CircuitBreaker.State, Counter> transitionCounters = new ConcurrentHashMap<>();
+
+    public EmployeeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param failure what the attempt threw, or null when it succeeded
+     */
+    public void recordUpstreamAttempt(String operation, RuntimeException failure, long durationNanos) {
+        Timer timer = failure == null
+            ? successTimers.computeIfAbsent(operation, key -> upstreamTimer(operation, STATUS_SUCCESS))
+            : failureTimers.computeIfAbsent(operation + " " + statusOf(failure), key -> upstreamTimer(operation, statusOf(failure)));
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry(String operation) {
+        retryCounters.computeIfAbsent(operation, key -> Counter.builder("employees.upstream.retries")
+            .description("Upstream attempts that failed and were retried")
+            .tag("operation", operation)
+            .register(meterRegistry)).increment();
+    }
+
+    public void recordStaleFallback(String operation) {
+        fallbackCounters.computeIfAbsent(operation, key -> Counter.builder("employees.stale.fallbacks")
+            .description("Reads answered from last-known-good data past the cache ttl")
+            .tag("operation", operation)
+            .register(meterRegistry)).increment();
+    }
+
+    public void registerRetryScheduler(RetryScheduler retryScheduler) {
+        FunctionCounter.builder("employees.upstream.attempts", retryScheduler, RetryScheduler::getAttemptCount)
+            .description("Upstream attempts, first and retries alike")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.upstream.exhausted", retryScheduler, RetryScheduler::getExhaustedCount)
+            .description("Upstream calls that gave up because they ran out of attempts or deadline")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.upstream.backoff", retryScheduler, RetryScheduler::getBackoffMillisTotal)
+            .description("Time spent backing off between upstream attempts")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    public void registerSingleFlight(String operation, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("employees.upstream.coalesced", singleFlight, SingleFlight::getCoalescedCount)
+            .description("Reads answered by sharing another caller's in-flight upstream call")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    public void registerRateLimiter(AdaptiveRateLimiter rateLimiter) {
+        Gauge.builder("employees.ratelimit.current", rateLimiter, AdaptiveRateLimiter::getCurrentRate)
+            .description("Learned client-side limit on calls to the remote api, in calls per second")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.ratelimit.delayed", rateLimiter, AdaptiveRateLimiter::getDelayedCount)
+            .description("Upstream calls that waited for a rate limit slot")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.ratelimit.rejected", rateLimiter, AdaptiveRateLimiter::getRejectedCount)
+            .description("Upstream calls refused without being sent because the wait for a slot was too long")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.ratelimit.throttled", rateLimiter, AdaptiveRateLimiter::getThrottledCount)
+            .description("429 answers from the remote api")
+            .register(meterRegistry);
+    }
+
+    public void registerSnapshotCache(EmployeeSnapshotCache snapshotCache) {
+        FunctionCounter.builder("employees.cache.hits", snapshotCache, EmployeeSnapshotCache::getHitCount)
+            .description("Snapshot reads answered from memory")
+            .tag("freshness", "fresh")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.cache.hits", snapshotCache, EmployeeSnapshotCache::getStaleHitCount)
+            .description("Snapshot reads answered from memory")
+            .tag("freshness", "stale")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.cache.misses", snapshotCache, EmployeeSnapshotCache::getMissCount)
+            .description("Snapshot reads that had to load the employee list first")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.cache.refreshes", snapshotCache, EmployeeSnapshotCache::getRefreshCount)
+            .description("Background refreshes of the employee snapshot")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+        FunctionCounter.builder("employees.cache.refreshes", snapshotCache, EmployeeSnapshotCache::getRefreshFailureCount)
+            .description("Background refreshes of the employee snapshot")
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+    }
+
+    public void registerCircuitBreaker(CircuitBreaker circuitBreaker) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("employees.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                .description("1 for the state the circuit to the remote api is in, 0 for the others")
+                .tag("state", state.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+        Gauge.builder("employees.circuit.failure.rate", circuitBreaker, CircuitBreaker::getFailureRate)
+            .description("Share of failed calls in the circuit breaker window, in percent")
+            .register(meterRegistry);
+    }
+
+    public void recordCircuitTransition(CircuitBreaker.State state) {
+        transitionCounters.computeIfAbsent(state, key -> Counter.builder("employees.circuit.transitions")
+            .description("State changes of the circuit to the remote api")
+            .tag("state", state.name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry)).increment();
+    }
+
+    public void recordCircuitRejection(String operation) {
+        rejectionCounters.computeIfAbsent(operation, key -> Counter.builder("employees.circuit.rejections")
+            .description("Upstream calls refused without being sent because the circuit was open")
+            .tag("operation", operation)
+            .register(meterRegistry)).increment();
+    }
+
+    public void registerCreateQueue(EmployeeCreateQueue createQueue) {
+        Gauge.builder("employees.create.queue.depth", createQueue, EmployeeCreateQueue::getQueuedJobs)
+            .description("Creates accepted for later and not yet finished")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the http status of the failed response, IO_ERROR when no response came back, UNKNOWN for anything else
+     */
+    static String statusOf(RuntimeException failure) {
+        if (failure instanceof RetryableException) {
+            return STATUS_IO_ERROR;
+        }
+        if (failure instanceof FeignException && ((FeignException) failure).status() > 0) {
+            return String.valueOf(((FeignException) failure).status());
+        }
+        return STATUS_UNKNOWN;
+    }
+
+    // #region private methods
+    private Timer upstreamTimer(String operation, String status) {
+        return Timer.builder("employees.upstream.requests")
+            .description("Latency of single attempts against the remote api")
+            .tag("operation", operation)
+            .tag("status", status)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(meterRegistry);
+    }
+    //#endregion
+}
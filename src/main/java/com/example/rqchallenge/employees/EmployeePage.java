@@ -0,0 +1,69 @@
+package com.example.rqchallenge.employees;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * One page of the sorted employee listing.  nextCursor is null on the last page.
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class EmployeePage {
+    private List<Employee> employees;
+    private String nextCursor;
+    private String sort;
+    private String direction;
+    private int limit;
+
+    public EmployeePage() {
+    }
+
+    public EmployeePage(List<Employee> employees, String nextCursor, String sort, String direction, int limit) {
+        this.employees = employees;
+        this.nextCursor = nextCursor;
+        this.sort = sort;
+        this.direction = direction;
+        this.limit = limit;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(List<Employee> employees) {
+        this.employees = employees;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.rqchallenge.employees;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Response;
+import feign.codec.Decoder;
+
+/**
+ * Feign decoder that reads the remote api's employee responses - BaseRemoteDto<List<Employee>> from findAll and
+ * BaseRemoteDto<Employee> from getById - straight off the token stream, and hands every other response type to the ObjectMapper.
+ *
+ * Databind resolves the snake_case names through reflection, and each employee goes through a bean deserializer.  Here the four
+ * fields we keep are matched by name and set through the Employee constructor, and profile_image and any other field are skipped
+ * without being read into a value.  The quirks databind tolerates are kept: an id may be a number or a string, and an age or
+ * salary may be a number, a numeric string, an empty string (null) or a float (truncated).
+ */
+public class EmployeeResponseDecoder implements Decoder {
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+
+    public EmployeeResponseDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.body() == null) {
+            return null;
+        }
+
+        Type data = dataTypeOf(type);
+        try (InputStream body = response.body().asInputStream()) {
+            if (data == Employee.class) {
+                return decodeEmployee(body);
+            }
+            if (isEmployeeList(data)) {
+                return decodeEmployees(body);
+            }
+            return objectMapper.readValue(body, objectMapper.constructType(type));
+        }
+    }
+
+    /**
+     * Reads a findAll response body.
+     */
+    public BaseRemoteDto<List<Employee>> decodeEmployees(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            BaseRemoteDto<List<Employee>> response = new BaseRemoteDto<>();
+            return readEnvelope(parser, response, () -> {
+                if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                    return null;
+                }
+                expect(parser, JsonToken.START_ARRAY);
+                List<Employee> employees = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    employees.add(readEmployee(parser));
+                }
+                return employees;
+            }) ? response : null;
+        }
+    }
+
+    /**
+     * Reads a getById response body.
+     */
+    public BaseRemoteDto<Employee> decodeEmployee(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            BaseRemoteDto<Employee> response = new BaseRemoteDto<>();
+            return readEnvelope(parser, response, () -> readEmployee(parser)) ? response : null;
+        }
+    }
+
+    // #region private methods
+    @FunctionalInterface
+    private interface DataReader<T> {
+        T read() throws IOException;
+    }
+
+    /**
+     * Fills the response from the status/data/message envelope the parser is about to read.
+     *
+     * @return false when the body is empty or a json null
+     */
+    private static <T> boolean readEnvelope(JsonParser parser, BaseRemoteDto<T> response, DataReader<T> data) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        expect(parser, JsonToken.START_OBJECT);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "status":
+                    response.setStatus(parser.getValueAsString());
+                    break;
+                case "message":
+                    response.setMessage(parser.getValueAsString());
+                    break;
+                case "data":
+                    response.setData(data.read());
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the employee object the parser is positioned on, or null for a json null.
+     */
+    private static Employee readEmployee(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_OBJECT);
+
+        String id = null;
+        String name = null;
+        Integer age = null;
+        Integer salary = null;
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "id":
+                    id = readText(parser);
+                    break;
+                case "employee_name":
+                    name = readText(parser);
+                    break;
+                case "employee_age":
+                    age = readInteger(parser);
+                    break;
+                case "employee_salary":
+                    salary = readInteger(parser);
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return new Employee(id, name, age, salary);
+    }
+
+    private static String readText(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string or number but got " + token);
+        }
+        // getText of a number token is the number as it was written, the same string databind would coerce it to
+        return parser.getText();
+    }
+
+    private static Integer readInteger(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getIntValue();
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                try {
+                    return text.isEmpty() ? null : Integer.valueOf(text);
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser, "Expected a whole number but got \"" + text + "\"", e);
+                }
+            default:
+                throw new JsonParseException(parser, "Expected a whole number but got " + token);
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+        if (parser.currentToken() != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but got " + parser.currentToken());
+        }
+    }
+
+    private static Type dataTypeOf(Type type) {
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == BaseRemoteDto.class) {
+            return ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        return null;
+    }
+
+    private static boolean isEmployeeList(Type type) {
+        return type instanceof ParameterizedType
+            && ((ParameterizedType) type).getRawType() == List.class
+            && ((ParameterizedType) type).getActualTypeArguments()[0] == Employee.class;
+    }
+    //#endregion
+}
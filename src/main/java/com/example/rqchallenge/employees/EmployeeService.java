@@ -2,131 +2,423 @@ package com.example.rqchallenge.employees;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
 import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
 
 import feign.FeignException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
-import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Component
 public class EmployeeService {
 
-    @Autowired
-    private EmployeeClient employeeClient;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_TOP_K = 1000;
+
+    private final EmployeeClient employeeClient;
+    private final EmployeeSnapshotCache snapshotCache;
+    private final BatchExecutor batchExecutor;
+    private final EmployeeMetrics metrics;
 
     Logger logger = LoggerFactory.getLogger(EmployeeService.class); 
 
+    public EmployeeService(EmployeeClient employeeClient, EmployeeSnapshotCache snapshotCache, BatchExecutor batchExecutor, EmployeeMetrics metrics) {
+        this.employeeClient = employeeClient;
+        this.snapshotCache = snapshotCache;
+        this.batchExecutor = batchExecutor;
+        this.metrics = metrics;
+    }
 
-    public List<Employee> getAllEmployees()  {
-            try {
-                return employeeClient.findAll().getData();
-            } catch (FeignException e) {
-                //"If you are unable to successfully receive responses from the endpoints, mocking the response calls may prove to be helpful."
-                if (e.status() == 429) {
-                    logger.debug("Received 429 status code. Using mocked response for getAllEmployees.");
-
-                    Employee employee1 = new Employee("1", "John Doe", 30, 50000);
-                    Employee employee2 = new Employee("2", "Janel Doe", 28, 150000);
-                    Employee employee3 = new Employee("3", "Janel Doerty", 38, 100000);
-                    return Arrays.asList(employee1, employee2, employee3);
-                } else {
-                    logger.error("Failed to retrieve employees. FeignException occurred.", e);
-                    throw e;
-                }
-            }
+    /**
+     * The whole list, with the version of the snapshot it was read from.
+     */
+    public CompletableFuture<VersionedResult<List<Employee>>> getAllEmployees()  {
+        return readSnapshot(EmployeeSnapshot::getEmployees);
     }
 
-    public List<Employee> getEmployeesByNameSearch(String searchString) {
-        var lowerSearchString = searchString.toLowerCase();
+    /**
+     * Returns one page of the listing in the requested order.  Pass the nextCursor of the previous page to continue;
+     * the cursor must come from a listing with the same sort and direction.
+     */
+    public CompletableFuture<VersionedResult<EmployeePage>> getEmployeesPage(int limit, String cursor, EmployeeSortField sortField, SortDirection direction) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
 
+        Employee after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            EmployeeCursor decoded = EmployeeCursor.decode(cursor);
+            if (decoded.getSortField() != sortField || decoded.getDirection() != direction) {
+                throw new IllegalArgumentException("cursor belongs to a listing with a different sort or direction");
+            }
+            after = decoded.toProbe();
+        }
+
+        Employee probe = after;
+        return readSnapshot(snapshot -> {
+            // Ask for one extra row to learn whether there is a next page without counting the rest
+            int[] rows = snapshot.rowsAfter(sortField, direction, probe, limit + 1);
+            List<Employee> employees = snapshot.employeesAt(rows.length > limit ? Arrays.copyOf(rows, limit) : rows);
+
+            String nextCursor = null;
+            if (rows.length > limit) {
+                nextCursor = EmployeeCursor.after(employees.get(employees.size() - 1), sortField, direction).encode();
+            }
+            return new EmployeePage(employees, nextCursor, sortField.name().toLowerCase(Locale.ROOT), direction.name().toLowerCase(Locale.ROOT), limit);
+        });
+    }
+
+    public CompletableFuture<VersionedResult<List<Employee>>> getEmployeesByNameSearch(String searchString) {
         // There is a choice here... this is the choice between a full match and a partial match.  
-        // Since there were no additional specifications, I went with the approach that most closely aligns with what was requested of me (full match), 
-        // but it would be as simple as switching the "equals" to a "contains" to support a partial match
-        return getAllEmployees().stream().filter(e -> e.getEmployeeName().toLowerCase().equals(lowerSearchString)).toList();
+        // Since there were no additional specifications, full match stays the default, partial matches are available through the other modes
+        return getEmployeesByNameSearch(searchString, NameSearchMode.EXACT);
+    }
+
+    public CompletableFuture<VersionedResult<List<Employee>>> getEmployeesByNameSearch(String searchString, NameSearchMode mode) {
+        return readSnapshot(snapshot -> snapshot.employeesAt(snapshot.getNameIndex().search(searchString, mode)));
+    }
+
+    public CompletableFuture<ReadResult<Employee>> getEmployeeById(String id) {
+        // Answer from the local snapshot while it is fresh; a stale snapshot or an unknown id still goes to the remote api
+        EmployeeSnapshot snapshot = snapshotCache.peekFresh();
+        if (snapshot != null) {
+            Employee employee = snapshot.findById(id);
+            if (employee != null) {
+                return CompletableFuture.completedFuture(ReadResult.fresh(employee));
+            }
+        }
+
+        return employeeClient.getByIdAsync(id).handle((remote, failure) -> {
+            if (failure == null) {
+                return ReadResult.fresh(remote.getData());
+            }
+            RuntimeException e = Futures.unwrap(failure);
+            // While the remote api is unavailable, answer from the last list that was fetched if it has the employee
+            if (CircuitBreaker.isUpstreamFailure(e)) {
+                ReadResult<Employee> lastKnown = findLastKnownGood(id);
+                if (lastKnown != null) {
+                    logger.debug("Remote api unavailable. Answered getEmployeeById from last-known-good data.");
+                    return lastKnown;
+                }
+            }
+            logger.error("Failed to retrieve employee by id.", e);
+            throw translateThrottling(e, "getById");
+        });
     }
 
-    public Employee getEmployeeById(String id) {
-        try {
-            return employeeClient.getById(id).getData();
-        } catch (FeignException e) {
-            //"If you are unable to successfully receive responses from the endpoints, mocking the response calls may prove to be helpful."
-            if (e.status() == 429) {
-                logger.debug("Received 429 status code. Using mocked response for getEmployeeById.");
-                return new Employee(id, "Mocked DataUser", 30, 50000);
-            } else {
-                logger.error("Failed to retrieve employee by id. FeignException occurred.", e);
-                throw e;
+    /**
+     * Looks up every id and reports the outcome per id, in the order the ids were given (duplicates are looked up once).
+     * Ids found in the fresh local snapshot are answered from it; the rest are fetched from the remote api in parallel.
+     * Ids the remote api could not answer because it is unavailable are answered from last-known-good data where possible, and the
+     * result is as stale as the oldest data any of them came from.
+     *
+     * @throws IllegalArgumentException when the list is empty, larger than the batch limit, or contains a blank id
+     */
+    public CompletableFuture<ReadResult<Map<String, BatchItemResult<Employee>>>> getEmployeesByIds(List<String> ids) {
+        Set<String> uniqueIds = uniqueIds(ids);
+        Map<String, BatchItemResult<Employee>> results = new LinkedHashMap<>();
+        List<String> remoteIds = new ArrayList<>();
+
+        EmployeeSnapshot snapshot = snapshotCache.peekFresh();
+        for (String id : uniqueIds) {
+            Employee employee = snapshot == null ? null : snapshot.findById(id);
+            // Reserve the slot now so the map keeps the request order once the remote results come in
+            results.put(id, employee == null ? null : BatchItemResult.ok(employee));
+            if (employee == null) {
+                remoteIds.add(id);
             }
         }
+
+        if (remoteIds.isEmpty()) {
+            return CompletableFuture.completedFuture(ReadResult.fresh(results));
+        }
+
+        CompletableFuture<List<BatchItemResult<Employee>>> fetching = batchExecutor.run(remoteIds, id -> employeeClient.getByIdAsync(id).thenApply(remote -> {
+            Employee employee = remote.getData();
+            return employee == null ? BatchItemResult.failed(404, "Employee not found") : BatchItemResult.ok(employee);
+        }));
+        return fetching.thenApply(fetched -> {
+            long staleAgeMillis = -1;
+            for (int i = 0; i < remoteIds.size(); i++) {
+                BatchItemResult<Employee> result = fetched.get(i);
+                ReadResult<Employee> lastKnown = result.getStatus() == 429 || result.getStatus() >= 500 ? findLastKnownGood(remoteIds.get(i)) : null;
+                if (lastKnown != null) {
+                    staleAgeMillis = Math.max(staleAgeMillis, lastKnown.getStaleAgeMillis());
+                }
+                results.put(remoteIds.get(i), lastKnown == null ? result : BatchItemResult.ok(lastKnown.getValue()));
+            }
+            return new ReadResult<>(results, staleAgeMillis);
+        });
+    }
+
+    public CompletableFuture<VersionedResult<Integer>> getHighestSalaryOfEmployees() {
+        return readSnapshot(snapshot -> snapshot.getSalaryIndex().highestSalary());
     }
 
-    public Integer getHighestSalaryOfEmployees() {
-        Comparator<Employee> cmp = Comparator.comparing(Employee::getEmployeeSalary);
-        Optional<Employee> highestPaidEmployee = getAllEmployees().stream().max(cmp);
-        return highestPaidEmployee.map(Employee::getEmployeeSalary).orElse(null);
+    /**
+     * Computed once per snapshot, so repeated calls between refreshes and writes only read the stored result.
+     */
+    public CompletableFuture<VersionedResult<EmployeeStatistics>> getStatistics() {
+        return readSnapshot(EmployeeSnapshot::getStatistics);
     }
 
-    public List<String> getTopTenHighestEarningEmployeeNames() {
-        List<Employee> employees = getAllEmployees();
+    public CompletableFuture<VersionedResult<List<String>>> getTopTenHighestEarningEmployeeNames() {
+        return readSnapshot(snapshot -> {
+            int[] topTenRows = snapshot.getSalaryIndex().topRows(10);
 
-        PriorityQueue<Employee> pq = new PriorityQueue<>(Comparator.comparing(Employee::getEmployeeSalary).reversed());
-        pq.addAll(employees);
+            var topTenNames = new ArrayList<String>(topTenRows.length);
+            for (int row : topTenRows) {
+                topTenNames.add(snapshot.getColumns().name(row));
+            }
+            return topTenNames;
+        });
+    }
 
-        var topTenNames = new ArrayList<String>(10);
-        var numResults = Math.min(pq.size(), 10);
-        for(int i = 0; i < numResults; i++){
-            topTenNames.add(pq.poll().getEmployeeName());
+    /**
+     * Returns up to k employees ranked by salary or age, highest first for DESC and lowest first for ASC, optionally only among
+     * those whose name contains nameFilter (ignoring case).  Employees without a value for the field are left out; ties go to the
+     * later employee in the list for DESC and the earlier one for ASC.
+     */
+    public CompletableFuture<VersionedResult<List<Employee>>> getTopEmployees(int k, EmployeeSortField field, SortDirection direction, String nameFilter) {
+        if (k < 1 || k > MAX_TOP_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_TOP_K);
+        }
+        if (field != EmployeeSortField.SALARY && field != EmployeeSortField.AGE) {
+            throw new IllegalArgumentException("Employees can only be ranked by salary or age");
+        }
+
+        return readSnapshot(snapshot -> {
+            if (nameFilter == null || nameFilter.isBlank()) {
+                if (field == EmployeeSortField.SALARY) {
+                    // The salary index is already sorted, so the answer is its first or last k slots
+                    SalaryIndex salaryIndex = snapshot.getSalaryIndex();
+                    return snapshot.employeesAt(direction == SortDirection.DESC ? salaryIndex.topRows(k) : salaryIndex.bottomRows(k));
+                }
+                return snapshot.employeesAt(TopRows.select(snapshot.getColumns(), null, field, direction, k));
+            }
+
+            int[] matchingRows = snapshot.getNameIndex().search(nameFilter, NameSearchMode.SUBSTRING);
+            return snapshot.employeesAt(TopRows.select(snapshot.getColumns(), matchingRows, field, direction, k));
+        });
+    }
+
+    /**
+     * @return employees earning between minSalary and maxSalary (both inclusive), lowest salary first
+     */
+    public CompletableFuture<VersionedResult<List<Employee>>> getEmployeesBySalaryRange(int minSalary, int maxSalary) {
+        if (minSalary > maxSalary) {
+            throw new IllegalArgumentException("minSalary must not be greater than maxSalary");
         }
 
-        return topTenNames;
+        return readSnapshot(snapshot -> snapshot.employeesAt(snapshot.getSalaryIndex().rowsInRange(minSalary, maxSalary)));
     }
 
-    public Employee createEmployee(Map<String, Object> employeeInput) {
-        try {
-            var apiInputMap = mapFromControllerInputToApiInput(employeeInput);
-            BaseRemoteDto<CreatedEmployee> createResponse = employeeClient.create(apiInputMap);
-            CreatedEmployee emp = createResponse.getData();
-            return new Employee(emp.getId(), emp.getName(), emp.getAge(), emp.getSalary());
-        } catch (FeignException e) {
-            //"If you are unable to successfully receive responses from the endpoints, mocking the response calls may prove to be helpful."
-            if (e.status() == 429) {
-                logger.debug("Received 429 status code. Using mocked response for createEmployee.");
-                return new Employee("23", "Mocked DataUser", 30, 50000);
-            } else {
-                logger.error("Failed to create employee. FeignException occurred.", e);
-                throw e;
+    public CompletableFuture<Employee> createEmployee(Map<String, Object> employeeInput) {
+        var apiInputMap = mapFromControllerInputToApiInput(employeeInput);
+        return employeeClient.createAsync(apiInputMap).handle((createResponse, failure) -> {
+            if (failure != null) {
+                throw upstreamFailure(failure, "Failed to create employee. FeignException occurred.", "create");
             }
+            Employee employee = toEmployee(createResponse.getData());
+            snapshotCache.applyCreated(employee);
+            return employee;
+        });
+    }
+
+    /**
+     * Checks an input the way createEmployees does, for callers that accept it now and create it later.
+     *
+     * @throws IllegalArgumentException when the input could never be created
+     */
+    public void requireValidEmployeeInput(Map<String, Object> employeeInput) {
+        String problem = validateEmployeeInput(employeeInput);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
         }
-    }    
+    }
 
+    /**
+     * Creates every employee in the list and reports the outcome of each one, in the order of the input.
+     * All inputs are validated before anything is sent; invalid ones get a 422 result and never reach the remote api.
+     * A 429 that outlasts the retries is reported as a failed item and does not stop the rest of the batch.
+     *
+     * @throws IllegalArgumentException when the list is empty or larger than the batch limit
+     */
+    public CompletableFuture<List<BatchItemResult<Employee>>> createEmployees(List<Map<String, Object>> employeeInputs) {
+        requireBatchSize(employeeInputs);
 
-    public String deleteEmployeeById(String id) {
-        try {
-            return employeeClient.delete(id).getData();
-        } catch (FeignException e) {
-            //"If you are unable to successfully receive responses from the endpoints, mocking the response calls may prove to be helpful."
-            if (e.status() == 429) {
-                logger.debug("Received 429 status code. Using mocked response for deleteEmployeeById.");
-                return id;
-            } else {
-                logger.error("Failed to delete employee by id. FeignException occurred.", e);
-                throw e;
+        List<String> problems = new ArrayList<>(employeeInputs.size());
+        List<Map<String, Object>> apiInputs = new ArrayList<>(employeeInputs.size());
+        for (Map<String, Object> employeeInput : employeeInputs) {
+            String problem = validateEmployeeInput(employeeInput);
+            problems.add(problem);
+            if (problem == null) {
+                apiInputs.add(mapFromControllerInputToApiInput(employeeInput));
             }
         }
+
+        CompletableFuture<List<BatchItemResult<Employee>>> creating = apiInputs.isEmpty()
+            ? CompletableFuture.completedFuture(List.of())
+            : batchExecutor.run(apiInputs, apiInput -> employeeClient.createAsync(apiInput).thenApply(createResponse -> {
+                Employee employee = toEmployee(createResponse.getData());
+                snapshotCache.applyCreated(employee);
+                return BatchItemResult.ok(employee);
+            }));
+
+        return creating.thenApply(created -> {
+            List<BatchItemResult<Employee>> results = new ArrayList<>(employeeInputs.size());
+            int next = 0;
+            for (String problem : problems) {
+                results.add(problem == null ? created.get(next++) : BatchItemResult.failed(422, problem));
+            }
+            return results;
+        });
+    }
+
+    public CompletableFuture<String> deleteEmployeeById(String id) {
+        return employeeClient.deleteAsync(id).handle((deleteResponse, failure) -> {
+            if (failure != null) {
+                throw upstreamFailure(failure, "Failed to delete employee by id. FeignException occurred.", "delete");
+            }
+            snapshotCache.applyDeleted(id);
+            return deleteResponse.getData();
+        });
+    }
+
+    /**
+     * Deletes every id through the remote api in parallel and reports the outcome per id, in the order the ids were given
+     * (duplicates are deleted once).  A 429 that outlasts the retries is reported as a failed item.
+     *
+     * @throws IllegalArgumentException when the list is empty, larger than the batch limit, or contains a blank id
+     */
+    public CompletableFuture<Map<String, BatchItemResult<String>>> deleteEmployeesByIds(List<String> ids) {
+        List<String> uniqueIds = new ArrayList<>(uniqueIds(ids));
+        CompletableFuture<List<BatchItemResult<String>>> deleting = batchExecutor.run(uniqueIds, id -> employeeClient.deleteAsync(id).thenApply(deleteResponse -> {
+            snapshotCache.applyDeleted(id);
+            return BatchItemResult.ok(deleteResponse.getData());
+        }));
+
+        return deleting.thenApply(deleted -> {
+            Map<String, BatchItemResult<String>> results = new LinkedHashMap<>();
+            for (int i = 0; i < uniqueIds.size(); i++) {
+                results.put(uniqueIds.get(i), deleted.get(i));
+            }
+            return results;
+        });
     }
 
     // #region private methods
+    private void requireBatchSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > batchExecutor.getMaxItems()) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + batchExecutor.getMaxItems() + " items");
+        }
+    }
+
+    private Set<String> uniqueIds(List<String> ids) {
+        requireBatchSize(ids);
+        Set<String> uniqueIds = new LinkedHashSet<>(ids.size() * 2);
+        for (String id : ids) {
+            if (id == null || id.isBlank()) {
+                throw new IllegalArgumentException("Employee ids must not be blank");
+            }
+            uniqueIds.add(id);
+        }
+        return uniqueIds;
+    }
+
+    /**
+     * Applies the read to the current snapshot.  Once a snapshot is loaded that happens straight away on the caller's thread; only a
+     * cold cache has to wait for the remote api.
+     */
+    private <T> CompletableFuture<VersionedResult<T>> readSnapshot(Function<EmployeeSnapshot, T> read) {
+        // Served from the in-process snapshot; the remote api is only hit on a cold cache or by the background refresh
+        return snapshotCache.get().handle((snapshot, failure) -> {
+            if (failure != null) {
+                throw upstreamFailure(failure, "Failed to retrieve employees. FeignException occurred.", "findAll");
+            }
+
+            // A snapshot past its ttl is last-known-good data: its refresh is still running or the remote api is unavailable
+            long staleMillis = snapshotCache.staleAgeMillis(snapshot);
+            if (staleMillis >= 0) {
+                metrics.recordStaleFallback("findAll");
+            }
+            return new VersionedResult<>(read.apply(snapshot), snapshot.getVersion(), staleMillis);
+        });
+    }
+
+    /**
+     * @return the employee from the last list that was fetched, whatever its age, or null when it is not there
+     */
+    private ReadResult<Employee> findLastKnownGood(String id) {
+        EmployeeSnapshot snapshot = snapshotCache.peek();
+        Employee employee = snapshot == null ? null : snapshot.findById(id);
+        if (employee == null) {
+            return null;
+        }
+        long staleMillis = snapshotCache.staleAgeMillis(snapshot);
+        if (staleMillis >= 0) {
+            metrics.recordStaleFallback("getById");
+        }
+        return new ReadResult<>(employee, staleMillis);
+    }
+
+    /**
+     * @return what an upstream call failed with, logged when it came from the remote api and translated by translateThrottling
+     */
+    private RuntimeException upstreamFailure(Throwable failure, String message, String operation) {
+        RuntimeException e = Futures.unwrap(failure);
+        if (e instanceof FeignException) {
+            logger.error(message, e);
+            return translateThrottling(e, operation);
+        }
+        return e;
+    }
+
+    /**
+     * A 429 that outlasted the retries means the remote api is up but will not serve us right now, which the endpoints answer with 503.
+     */
+    private static RuntimeException translateThrottling(RuntimeException e, String operation) {
+        if (e instanceof FeignException && ((FeignException) e).status() == 429) {
+            return new UpstreamUnavailableException(operation + " kept being throttled by the remote api", e);
+        }
+        return e;
+    }
+
+    private Employee toEmployee(CreatedEmployee emp) {
+        return new Employee(emp.getId(), emp.getName(), emp.getAge(), emp.getSalary());
+    }
+
+    /**
+     * @return why the input cannot be sent to the remote api, or null when it can
+     */
+    private String validateEmployeeInput(Map<String, Object> employeeInput) {
+        if (employeeInput == null) {
+            return "employee input is missing";
+        }
+        Object name = employeeInput.get("employee_name");
+        if (!(name instanceof String) || ((String) name).isBlank()) {
+            return "employee_name must be a non-empty string";
+        }
+        for (String field : List.of("employee_age", "employee_salary")) {
+            Object value = employeeInput.get(field);
+            if (value != null && !(value instanceof Integer && (Integer) value >= 0)) {
+                return field + " must be a non-negative whole number";
+            }
+        }
+        return null;
+    }
+
     private Map<String, Object> mapFromControllerInputToApiInput(Map<String, Object> employeeInput) {
         Map<String, Object> apiInputMap = new HashMap<>();
         
@@ -0,0 +1,234 @@
+package com.example.rqchallenge.employees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, point-in-time copy of the full employee list returned by the remote api.
+ * A snapshot is never modified once built; a refresh swaps in a new snapshot with a higher version.
+ * Lookup structures derived from the list are built here, once per snapshot, so reads never pay for them.
+ *
+ * The employees themselves are held in an EmployeeColumns store rather than as Employee objects; the lists handed out by
+ * getEmployees and employeesAt materialize Employee objects as they are read.
+ *
+ * A local create or delete derives the next snapshot from this one with withEmployeeAdded / withEmployeeRemoved, which patch
+ * every lookup structure in linear time instead of rebuilding and re-sorting them.
+ *
+ * Statistics are computed from the sorted structures the first time they are asked for and kept for the life of the snapshot.
+ */
+public class EmployeeSnapshot {
+    private final EmployeeColumns columns;
+    private final long version;
+    private final long loadedAtNanos;
+    private final SalaryIndex salaryIndex;
+    private final NameIndex nameIndex;
+    private final Map<EmployeeSortField, int[]> sortOrders;
+    private volatile EmployeeStatistics statistics;
+
+    public EmployeeSnapshot(List<Employee> employees, long version, long loadedAtNanos) {
+        this.columns = EmployeeColumns.of(employees == null ? List.of() : employees);
+        this.version = version;
+        this.loadedAtNanos = loadedAtNanos;
+        this.salaryIndex = SalaryIndex.build(columns);
+        this.nameIndex = NameIndex.build(columns);
+        this.sortOrders = buildSortOrders(employees == null ? List.of() : employees);
+    }
+
+    private EmployeeSnapshot(EmployeeColumns columns, long version, long loadedAtNanos, SalaryIndex salaryIndex, NameIndex nameIndex,
+                             Map<EmployeeSortField, int[]> sortOrders) {
+        this.columns = columns;
+        this.version = version;
+        this.loadedAtNanos = loadedAtNanos;
+        this.salaryIndex = salaryIndex;
+        this.nameIndex = nameIndex;
+        this.sortOrders = sortOrders;
+    }
+
+    /**
+     * Returns the next snapshot with the employee appended to the end of the list.  The load time is kept, so a local write never
+     * extends how long the rest of the data counts as fresh.
+     *
+     * @return this snapshot when the employee has no id or the id is already present
+     */
+    public EmployeeSnapshot withEmployeeAdded(Employee employee, long version) {
+        if (employee.getId() == null || columns.rowOf(employee.getId()) >= 0) {
+            return this;
+        }
+
+        int row = columns.size();
+        EmployeeColumns added = columns.withAppended(employee);
+
+        Map<EmployeeSortField, int[]> orders = new EnumMap<>(EmployeeSortField.class);
+        sortOrders.forEach((sortField, ascending) ->
+            orders.put(sortField, RowArrays.insertAt(ascending, firstIndexAfter(added, ascending, sortField.comparator(), employee), row)));
+
+        return new EmployeeSnapshot(added, version, loadedAtNanos,
+            salaryIndex.withRowAppended(row, employee.getEmployeeSalary()), nameIndex.withRowAppended(row, employee.getEmployeeName()),
+            orders);
+    }
+
+    /**
+     * Returns the next snapshot without the employee with the given id; the other employees keep their order.
+     *
+     * @return this snapshot when the id is not present
+     */
+    public EmployeeSnapshot withEmployeeRemoved(String id, long version) {
+        int row = columns.rowOf(id);
+        if (row < 0) {
+            return this;
+        }
+
+        Map<EmployeeSortField, int[]> orders = new EnumMap<>(EmployeeSortField.class);
+        sortOrders.forEach((sortField, ascending) -> orders.put(sortField, RowArrays.withoutRow(ascending, row)));
+
+        return new EmployeeSnapshot(columns.withoutRow(row), version, loadedAtNanos,
+            salaryIndex.withRowRemoved(row), nameIndex.withRowRemoved(row), orders);
+    }
+
+    /**
+     * @return a read-only view of every employee, materialized row by row as it is read
+     */
+    public List<Employee> getEmployees() {
+        return columns.asList();
+    }
+
+    public EmployeeColumns getColumns() {
+        return columns;
+    }
+
+    public SalaryIndex getSalaryIndex() {
+        return salaryIndex;
+    }
+
+    public NameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * Two threads asking at once may both compute the statistics; they compute the same result, so either may be kept.
+     */
+    public EmployeeStatistics getStatistics() {
+        EmployeeStatistics computed = statistics;
+        if (computed == null) {
+            computed = computeStatistics();
+            statistics = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * @return the employee with the given id, or null when this snapshot does not contain it
+     */
+    public Employee findById(String id) {
+        int row = columns.rowOf(id);
+        return row < 0 ? null : columns.employeeAt(row);
+    }
+
+    /**
+     * Returns up to limit rows in the given order, starting right after the position of the after employee
+     * (from the start of the order when after is null).  The position does not have to belong to an employee in this snapshot.
+     */
+    public int[] rowsAfter(EmployeeSortField sortField, SortDirection direction, Employee after, int limit) {
+        int[] ascending = sortOrders.get(sortField);
+        Comparator<Employee> comparator = sortField.comparator();
+
+        if (direction == SortDirection.ASC) {
+            int from = after == null ? 0 : firstIndexAfter(columns, ascending, comparator, after);
+            return Arrays.copyOfRange(ascending, from, Math.min(ascending.length, from + Math.max(limit, 0)));
+        }
+
+        // Descending walks the ascending order backwards from the last row before the cursor position
+        int from = (after == null ? ascending.length : firstIndexAtLeast(columns, ascending, comparator, after)) - 1;
+        int count = Math.min(from + 1, Math.max(limit, 0));
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = ascending[from - i];
+        }
+        return rows;
+    }
+
+    /**
+     * Maps rows from one of the indexes back to employees, keeping the order of the rows.
+     */
+    public List<Employee> employeesAt(int[] rows) {
+        List<Employee> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(columns.employeeAt(row));
+        }
+        return result;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAtNanos() {
+        return loadedAtNanos;
+    }
+
+    public boolean isOlderThan(long ttlNanos, long nowNanos) {
+        return nowNanos - loadedAtNanos >= ttlNanos;
+    }
+
+    // #region private methods
+    private static Map<EmployeeSortField, int[]> buildSortOrders(List<Employee> employees) {
+        // Sorted against the Employee objects the snapshot is built from, so the comparisons do not materialize anything
+        Map<EmployeeSortField, int[]> sortOrders = new EnumMap<>(EmployeeSortField.class);
+        for (EmployeeSortField sortField : EmployeeSortField.values()) {
+            Integer[] rows = new Integer[employees.size()];
+            for (int row = 0; row < rows.length; row++) {
+                rows[row] = row;
+            }
+            Comparator<Employee> comparator = sortField.comparator();
+            Arrays.sort(rows, (a, b) -> comparator.compare(employees.get(a), employees.get(b)));
+            sortOrders.put(sortField, Arrays.stream(rows).mapToInt(Integer::intValue).toArray());
+        }
+        return sortOrders;
+    }
+
+    private EmployeeStatistics computeStatistics() {
+        // The age order puts employees without an age last, so the ones with an age are a prefix of it
+        int[] byAge = sortOrders.get(EmployeeSortField.AGE);
+        int withAge = 0;
+        while (withAge < byAge.length && columns.hasAge(byAge[withAge])) {
+            withAge++;
+        }
+
+        return new EmployeeStatistics(columns.size(),
+            ValueStatistics.of(salaryIndex.size(), salaryIndex::sortedSalaryAt),
+            ValueStatistics.of(withAge, position -> columns.ageAt(byAge[position])));
+    }
+
+    private static int firstIndexAfter(EmployeeColumns columns, int[] rows, Comparator<Employee> comparator, Employee probe) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(columns.employeeAt(rows[mid]), probe) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstIndexAtLeast(EmployeeColumns columns, int[] rows, Comparator<Employee> comparator, Employee probe) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(columns.employeeAt(rows[mid]), probe) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    //#endregion
+}
@@ -0,0 +1,369 @@
+package com.example.rqchallenge.employees;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process, stale-while-revalidate cache of the full employee list.
+ *
+ * The first caller starts loading the list, and everyone arriving before it lands shares that one load; nobody holds a thread while
+ * waiting for it.  After that every caller is served the current snapshot straight from memory;
+ * once the snapshot is older than the configured ttl, the next caller kicks off a single background refresh and keeps getting
+ * the stale snapshot until the refresh lands.  A failed refresh leaves the stale snapshot in place and is retried on a later read.
+ *
+ * Creates and deletes made through this app are written through to the current snapshot as soon as the remote api confirms them,
+ * so they are visible to the next read without reloading the list.  A list that was already being fetched when a write happened may
+ * or may not include it, so such writes are replayed on top of that list when it lands.
+ *
+ * While the remote api is unavailable the refreshes fail and the last snapshot that was fetched keeps being served as last-known-good data.
+ *
+ * Every list fetched from the remote api is also saved to an EmployeeSnapshotFile.  On startup the saved list becomes the first
+ * snapshot, aged by how long ago it was saved, and a refresh is started straight away; reads are served from the saved list until
+ * it lands instead of all queueing up behind a cold load.
+ */
+@Component
+public class EmployeeSnapshotCache {
+
+    private final EmployeeClient employeeClient;
+    private final EmployeeSnapshotFile snapshotFile;
+    private final long ttlNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<EmployeeSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong versions = new AtomicLong();
+    private final Object loadLock = new Object();
+    private final Object deltaLock = new Object();
+    private final Deque<Delta> recentDeltas = new ArrayDeque<>();
+    private final List<Long> fetchesInFlight = new ArrayList<>();
+    private CompletableFuture<EmployeeSnapshot> coldLoad;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    Logger logger = LoggerFactory.getLogger(EmployeeSnapshotCache.class);
+
+    @Autowired
+    public EmployeeSnapshotCache(EmployeeClient employeeClient, EmployeeSnapshotFile snapshotFile,
+                                 @Value("${employees.cache.ttl-millis:30000}") long ttlMillis, EmployeeMetrics metrics) {
+        this(employeeClient, snapshotFile, ttlMillis, Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "employee-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }), System::nanoTime);
+        metrics.registerSnapshotCache(this);
+    }
+
+    public EmployeeSnapshotCache(EmployeeClient employeeClient, long ttlMillis, Executor refreshExecutor, LongSupplier nanoClock) {
+        this(employeeClient, EmployeeSnapshotFile.disabled(), ttlMillis, refreshExecutor, nanoClock);
+    }
+
+    public EmployeeSnapshotCache(EmployeeClient employeeClient, EmployeeSnapshotFile snapshotFile, long ttlMillis, Executor refreshExecutor,
+                                 LongSupplier nanoClock) {
+        this.employeeClient = employeeClient;
+        this.snapshotFile = snapshotFile;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Makes the saved employee list the first snapshot and starts fetching a fresh one in the background.
+     * Does nothing when there is no usable saved list or a snapshot has already been loaded.
+     */
+    @PostConstruct
+    public void restoreSaved() {
+        EmployeeSnapshotFile.Contents saved = snapshotFile.read();
+        if (saved == null) {
+            return;
+        }
+
+        long loadedAtNanos = nanoClock.getAsLong() - TimeUnit.MILLISECONDS.toNanos(saved.getAgeMillis());
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(saved.getEmployees(), versions.incrementAndGet(), loadedAtNanos);
+        if (current.compareAndSet(null, snapshot)) {
+            logger.info("Serving {} saved employees until the first refresh lands", saved.getEmployees().size());
+            refreshInBackground();
+        }
+    }
+
+    /**
+     * Returns the current snapshot, already completed unless nothing has been loaded yet, in which case it completes once the load lands.
+     * A stale snapshot is still returned; it just schedules a refresh on the way out.
+     */
+    public CompletableFuture<EmployeeSnapshot> get() {
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return loadOnMiss();
+        }
+
+        if (snapshot.isOlderThan(ttlNanos, nanoClock.getAsLong())) {
+            staleHits.increment();
+            refreshInBackground();
+        } else {
+            hits.increment();
+        }
+        return CompletableFuture.completedFuture(snapshot);
+    }
+
+    /**
+     * Returns the current snapshot only if it is still within the ttl, without loading or refreshing anything.
+     * Used by lookups that can answer from local data when it is fresh but would rather ask the remote api than pull the full list.
+     *
+     * @return the fresh snapshot, or null when nothing is loaded or the snapshot is stale
+     */
+    public EmployeeSnapshot peekFresh() {
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null || snapshot.isOlderThan(ttlNanos, nanoClock.getAsLong())) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the current snapshot whatever its age, without loading or refreshing anything.
+     * Used as last-known-good data when the remote api cannot answer.
+     *
+     * @return the last loaded snapshot, or null when nothing has been loaded
+     */
+    public EmployeeSnapshot peek() {
+        return current.get();
+    }
+
+    /**
+     * @return how long ago the snapshot was fetched, in millis, once that is past the ttl; -1 while it is within the ttl
+     */
+    public long staleAgeMillis(EmployeeSnapshot snapshot) {
+        long nowNanos = nanoClock.getAsLong();
+        return snapshot.isOlderThan(ttlNanos, nowNanos) ? TimeUnit.NANOSECONDS.toMillis(nowNanos - snapshot.getLoadedAtNanos()) : -1;
+    }
+
+    /**
+     * Drops the current snapshot so the next read goes back to the remote api.
+     */
+    public void invalidate() {
+        current.set(null);
+    }
+
+    /**
+     * Adds an employee the remote api has just created to the current snapshot.  Does nothing while no snapshot is loaded.
+     */
+    public void applyCreated(Employee employee) {
+        applyDelta(new Delta(nanoClock.getAsLong(), employee, null));
+    }
+
+    /**
+     * Removes an employee the remote api has just deleted from the current snapshot.  Does nothing while no snapshot is loaded.
+     */
+    public void applyDeleted(String id) {
+        applyDelta(new Delta(nanoClock.getAsLong(), null, id));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    /**
+     * Number of reads that found no snapshot loaded, including those that shared another caller's cold load; none of them was
+     * answered from memory.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    // #region private methods
+    private CompletableFuture<EmployeeSnapshot> loadOnMiss() {
+        misses.increment();
+        // Only one caller pays for the cold load, everyone arriving before it lands picks up its result.
+        synchronized (loadLock) {
+            EmployeeSnapshot snapshot = current.get();
+            if (snapshot != null) {
+                return CompletableFuture.completedFuture(snapshot);
+            }
+            if (coldLoad != null) {
+                return coldLoad.copy();
+            }
+
+            long startedAtNanos = startFetch();
+            CompletableFuture<EmployeeSnapshot> loading;
+            try {
+                loading = employeeClient.findAllAsync().thenApply(remote -> install(startedAtNanos, remote.getData()));
+            } catch (RuntimeException e) {
+                finishFetch(startedAtNanos);
+                return CompletableFuture.failedFuture(e);
+            }
+            coldLoad = loading;
+            loading.whenComplete((loaded, failure) -> {
+                finishFetch(startedAtNanos);
+                synchronized (loadLock) {
+                    if (coldLoad == loading) {
+                        coldLoad = null;
+                    }
+                }
+            });
+            // A copy, so a caller cancelling its own future cannot fail the load for everyone else
+            return loading.copy();
+        }
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load();
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    logger.warn("Background refresh of the employee snapshot failed. Continuing to serve the stale snapshot.", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            logger.warn("Unable to schedule a background refresh of the employee snapshot.", e);
+        }
+    }
+
+    private void load() {
+        long startedAtNanos = startFetch();
+        try {
+            install(startedAtNanos, employeeClient.findAll().getData());
+        } finally {
+            finishFetch(startedAtNanos);
+        }
+    }
+
+    /**
+     * Records a fetch of the list as in flight, so the writes it may have missed are kept until it lands.
+     *
+     * @return when the fetch started
+     */
+    private long startFetch() {
+        synchronized (deltaLock) {
+            long startedAtNanos = nanoClock.getAsLong();
+            fetchesInFlight.add(startedAtNanos);
+            return startedAtNanos;
+        }
+    }
+
+    private void finishFetch(long startedAtNanos) {
+        synchronized (deltaLock) {
+            fetchesInFlight.remove(Long.valueOf(startedAtNanos));
+            pruneDeltas();
+        }
+    }
+
+    /**
+     * Drops the writes every fetch still in flight already includes.  Fetches can overlap - a cold load started after invalidate()
+     * while an older refresh is still running - so this goes by the oldest of them rather than by the current snapshot.
+     */
+    private void pruneDeltas() {
+        if (fetchesInFlight.isEmpty()) {
+            // Any later fetch starts after every write recorded so far
+            recentDeltas.clear();
+            return;
+        }
+        long oldestStartNanos = Collections.min(fetchesInFlight);
+        recentDeltas.removeIf(delta -> delta.atNanos < oldestStartNanos);
+    }
+
+    private EmployeeSnapshot install(long startedAtNanos, List<Employee> employees) {
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(employees, versions.incrementAndGet(), nanoClock.getAsLong());
+
+        synchronized (deltaLock) {
+            // Writes from before the fetch started are in the fetched list; later ones might not be, so replay them.
+            // Replaying is harmless either way: a create of a present id and a delete of a missing one are no-ops.
+            // Older writes stay recorded here for any other fetch still in flight; finishFetch drops them once none needs them.
+            for (Delta delta : recentDeltas) {
+                if (delta.atNanos >= startedAtNanos) {
+                    snapshot = delta.applyTo(snapshot, versions.incrementAndGet());
+                }
+            }
+            current.set(snapshot);
+        }
+        logger.debug("Loaded employee snapshot version {} with {} employees", snapshot.getVersion(), snapshot.getEmployees().size());
+        saveInBackground(employees);
+        return snapshot;
+    }
+
+    private void saveInBackground(List<Employee> employees) {
+        if (!snapshotFile.isEnabled() || employees == null) {
+            return;
+        }
+
+        try {
+            // Behind any refresh on the same single thread, so saves happen in fetch order and never hold up a cold load
+            refreshExecutor.execute(() -> snapshotFile.write(employees));
+        } catch (RuntimeException e) {
+            logger.warn("Unable to schedule saving the employee snapshot.", e);
+        }
+    }
+
+    private void applyDelta(Delta delta) {
+        synchronized (deltaLock) {
+            EmployeeSnapshot snapshot = current.get();
+            if (snapshot != null) {
+                current.set(delta.applyTo(snapshot, versions.incrementAndGet()));
+            }
+            recentDeltas.addLast(delta);
+            pruneDeltas();
+        }
+    }
+
+    private static class Delta {
+        private final long atNanos;
+        private final Employee created;
+        private final String deletedId;
+
+        Delta(long atNanos, Employee created, String deletedId) {
+            this.atNanos = atNanos;
+            this.created = created;
+            this.deletedId = deletedId;
+        }
+
+        EmployeeSnapshot applyTo(EmployeeSnapshot snapshot, long version) {
+            return created != null ? snapshot.withEmployeeAdded(created, version) : snapshot.withEmployeeRemoved(deletedId, version);
+        }
+    }
+    //#endregion
+}
@@ -0,0 +1,265 @@
+package com.example.rqchallenge.employees;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local copy of the last employee list fetched from the remote api, so a restarted instance can serve reads straight away instead
+ * of sending its whole first wave of traffic to findAll.
+ *
+ * The file is a fixed header followed by one record per employee:
+ *
+ * header   magic, format version, saved-at epoch millis, employee count, payload length, CRC32C of the payload, CRC32C of the header
+ * record   flags byte (1 = has age, 2 = has salary), id, name, then age and salary when present
+ *          strings are an int byte length (-1 for null) followed by UTF-8 bytes
+ *
+ * A file is written to a temporary sibling and moved into place, so readers only ever see a complete file.  It is read through a
+ * memory mapping, and anything unexpected - wrong magic, another format version, a length or checksum that does not match - makes
+ * read return null and the file is ignored.
+ */
+@Component
+public class EmployeeSnapshotFile {
+
+    static final int MAGIC = 0x52514553;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 36;
+
+    private static final int HAS_AGE = 1;
+    private static final int HAS_SALARY = 2;
+
+    private final Path path;
+    private final LongSupplier wallClock;
+
+    Logger logger = LoggerFactory.getLogger(EmployeeSnapshotFile.class);
+
+    /**
+     * What was read back from the file.
+     */
+    public static class Contents {
+        private final List<Employee> employees;
+        private final long ageMillis;
+
+        Contents(List<Employee> employees, long ageMillis) {
+            this.employees = employees;
+            this.ageMillis = ageMillis;
+        }
+
+        public List<Employee> getEmployees() {
+            return employees;
+        }
+
+        /**
+         * How long ago the list was saved; never negative, even when the wall clock has gone backwards since.
+         */
+        public long getAgeMillis() {
+            return ageMillis;
+        }
+    }
+
+    @Autowired
+    public EmployeeSnapshotFile(@Value("${employees.snapshot.file:}") String path) {
+        this(path == null || path.isBlank() ? null : Path.of(path), System::currentTimeMillis);
+    }
+
+    /**
+     * @param path where the snapshot is kept, or null to disable persisting it
+     */
+    public EmployeeSnapshotFile(Path path, LongSupplier wallClock) {
+        this.path = path;
+        this.wallClock = wallClock;
+    }
+
+    public static EmployeeSnapshotFile disabled() {
+        return new EmployeeSnapshotFile(null, System::currentTimeMillis);
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    /**
+     * Replaces the file with the given employees.  Failures are logged and otherwise ignored: the file only speeds up restarts.
+     */
+    public synchronized void write(List<Employee> employees) {
+        if (path == null) {
+            return;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // The header needs the payload's length and checksum, so it is written last, in front of the payload
+                channel.position(HEADER_BYTES);
+                CRC32C payloadChecksum = new CRC32C();
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), payloadChecksum);
+                DataOutputStream out = new DataOutputStream(checked);
+                for (Employee employee : employees) {
+                    writeRecord(out, employee);
+                }
+                out.flush();
+
+                long payloadBytes = channel.position() - HEADER_BYTES;
+                channel.write(header(wallClock.getAsLong(), employees.size(), payloadBytes, (int) payloadChecksum.getValue()), 0);
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Saved {} employees to {}", employees.size(), path);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to save the employee snapshot to {}", path, e);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The next write truncates it anyway
+            }
+        }
+    }
+
+    /**
+     * @return the saved employees, or null when there is no usable file
+     */
+    public Contents read() {
+        if (path == null) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileBytes = channel.size();
+            if (fileBytes < HEADER_BYTES || fileBytes > Integer.MAX_VALUE) {
+                logger.warn("Ignoring the employee snapshot in {}: unexpected size of {} bytes", path, fileBytes);
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+            return decode(buffer, (int) fileBytes);
+        } catch (NoSuchFileException e) {
+            logger.info("No saved employee snapshot in {}", path);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring the employee snapshot in {}: it could not be read", path, e);
+            return null;
+        }
+    }
+
+    // #region private methods
+    private Contents decode(ByteBuffer buffer, int fileBytes) {
+        CRC32C headerChecksum = new CRC32C();
+        headerChecksum.update(buffer.duplicate().limit(HEADER_BYTES - Integer.BYTES));
+
+        int magic = buffer.getInt();
+        int formatVersion = buffer.getInt();
+        long savedAtMillis = buffer.getLong();
+        int count = buffer.getInt();
+        long payloadBytes = buffer.getLong();
+        int payloadCrc = buffer.getInt();
+        int headerCrc = buffer.getInt();
+
+        if (magic != MAGIC || headerCrc != (int) headerChecksum.getValue()) {
+            logger.warn("Ignoring the employee snapshot in {}: not a snapshot file or its header is corrupt", path);
+            return null;
+        }
+        if (formatVersion != FORMAT_VERSION) {
+            logger.warn("Ignoring the employee snapshot in {}: format version {} is not supported", path, formatVersion);
+            return null;
+        }
+        if (payloadBytes != fileBytes - HEADER_BYTES || count < 0) {
+            logger.warn("Ignoring the employee snapshot in {}: the file is truncated", path);
+            return null;
+        }
+
+        CRC32C payloadChecksum = new CRC32C();
+        payloadChecksum.update(buffer.duplicate());
+        if (payloadCrc != (int) payloadChecksum.getValue()) {
+            logger.warn("Ignoring the employee snapshot in {}: checksum mismatch", path);
+            return null;
+        }
+
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(readRecord(buffer));
+        }
+        long ageMillis = Math.max(0, wallClock.getAsLong() - savedAtMillis);
+        logger.info("Read {} employees saved {}ms ago from {}", count, ageMillis, path);
+        return new Contents(employees, ageMillis);
+    }
+
+    private static ByteBuffer header(long savedAtMillis, int count, long payloadBytes, int payloadCrc) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+            .putInt(MAGIC)
+            .putInt(FORMAT_VERSION)
+            .putLong(savedAtMillis)
+            .putInt(count)
+            .putLong(payloadBytes)
+            .putInt(payloadCrc);
+        CRC32C headerChecksum = new CRC32C();
+        headerChecksum.update(header.array(), 0, header.position());
+        return header.putInt((int) headerChecksum.getValue()).flip();
+    }
+
+    private static void writeRecord(DataOutputStream out, Employee employee) throws IOException {
+        Integer age = employee.getEmployeeAge();
+        Integer salary = employee.getEmployeeSalary();
+        out.writeByte((age != null ? HAS_AGE : 0) | (salary != null ? HAS_SALARY : 0));
+        writeString(out, employee.getId());
+        writeString(out, employee.getEmployeeName());
+        if (age != null) {
+            out.writeInt(age);
+        }
+        if (salary != null) {
+            out.writeInt(salary);
+        }
+    }
+
+    private static Employee readRecord(ByteBuffer buffer) {
+        int flags = buffer.get();
+        String id = readString(buffer);
+        String name = readString(buffer);
+        Integer age = (flags & HAS_AGE) != 0 ? buffer.getInt() : null;
+        Integer salary = (flags & HAS_SALARY) != 0 ? buffer.getInt() : null;
+        return new Employee(id, name, age, salary);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    //#endregion
+}
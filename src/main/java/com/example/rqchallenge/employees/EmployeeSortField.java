@@ -0,0 +1,78 @@
+package com.example.rqchallenge.employees;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Fields the employee listing can be sorted by.
+ *
+ * Every ordering breaks ties on id, so it is total and a position in it can be described by the (value, id) of the employee sitting
+ * there - which is what a page cursor records.  Missing values sort last.
+ */
+public enum EmployeeSortField {
+    ID(Employee::getId, Function.identity(), ValueOrders.ID),
+    NAME(Employee::getEmployeeName, Function.identity(), String.CASE_INSENSITIVE_ORDER),
+    AGE(Employee::getEmployeeAge, Integer::valueOf, Comparator.naturalOrder()),
+    SALARY(Employee::getEmployeeSalary, Integer::valueOf, Comparator.naturalOrder());
+
+    private final Function<Employee, ?> getter;
+    private final Function<String, ?> parser;
+    private final Comparator<Employee> comparator;
+
+    <T> EmployeeSortField(Function<Employee, T> getter, Function<String, T> parser, Comparator<T> valueOrder) {
+        this.getter = getter;
+        this.parser = parser;
+        this.comparator = Comparator.comparing(getter, Comparator.nullsLast(valueOrder))
+            .thenComparing(Employee::getId, Comparator.nullsLast(ValueOrders.ID));
+    }
+
+    public Comparator<Employee> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return the sort value of the employee as a string, or null when the employee has no value for this field
+     */
+    public String valueOf(Employee employee) {
+        Object value = getter.apply(employee);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Builds a stand-in employee carrying just the given sort value and id, for locating a position in this ordering.
+     *
+     * @throws IllegalArgumentException when the value cannot be a value of this field
+     */
+    public Employee probe(String value, String id) {
+        Object parsed = value == null ? null : parser.apply(value);
+        switch (this) {
+            case NAME:
+                return new Employee(id, (String) parsed, null, null);
+            case AGE:
+                return new Employee(id, null, (Integer) parsed, null);
+            case SALARY:
+                return new Employee(id, null, null, (Integer) parsed);
+            default:
+                return new Employee(id, null, null, null);
+        }
+    }
+
+    /**
+     * Parses the sort query parameter ("id", "name", "age" or "salary", in any case).
+     *
+     * @throws IllegalArgumentException when the value is not a supported field
+     */
+    public static EmployeeSortField fromParameter(String value) {
+        try {
+            return EmployeeSortField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unsupported sort field: " + value);
+        }
+    }
+
+    private static class ValueOrders {
+        // Ids are numeric strings, so shorter sorts first to keep "9" ahead of "10"
+        static final Comparator<String> ID = Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.rqchallenge.employees;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Salary and age statistics of one employee snapshot.  count is every employee; the salary and age counts leave out employees
+ * without that value.
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class EmployeeStatistics {
+    private final int count;
+    private final ValueStatistics salary;
+    private final ValueStatistics age;
+
+    public EmployeeStatistics(int count, ValueStatistics salary, ValueStatistics age) {
+        this.count = count;
+        this.salary = salary;
+        this.age = age;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public ValueStatistics getSalary() {
+        return salary;
+    }
+
+    public ValueStatistics getAge() {
+        return age;
+    }
+}
@@ -1,15 +1,80 @@
 package com.example.rqchallenge.employees;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import static java.util.concurrent.TimeUnit.SECONDS;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Client;
 import feign.Retryer;
+import feign.codec.Decoder;
+import feign.hc5.ApacheHttp5Client;
 
 @Configuration
 public class FeignConfiguration {
+    /**
+     * Feign's own retryer sleeps on the calling thread between attempts, which parks a request thread for up to minutes on a 429.
+     * Retries are handled by the RetryScheduler instead, so Feign itself never retries.
+     */
     @Bean
     public Retryer feignRetryer() {
-        return new Retryer.Default(SECONDS.toMillis(20), SECONDS.toMillis(60), 3);
+        return Retryer.NEVER_RETRY;
+    }
+
+    /**
+     * Pooled keep-alive connections to the remote api.  Feign's default client opens an HttpURLConnection per call and relies on the
+     * JDK's keep-alive cache, which holds at most 5 idle connections per host, so under load most calls pay for a fresh TCP and TLS
+     * handshake.
+     *
+     * Content compression is left on: every request asks for gzip and compressed responses are decoded transparently, which shrinks
+     * the findAll download several times over.  Idle and expired connections are evicted in the background so a connection the
+     * remote end has already closed is not handed out after a quiet period.  The http client's own retries are off, as it would
+     * otherwise resend on a 429 or 503 behind the RetryScheduler's back.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient employeeHttpClient(@Value("${employees.http.max-connections:64}") int maxConnections,
+                                                  @Value("${employees.http.max-connections-per-route:64}") int maxConnectionsPerRoute,
+                                                  @Value("${employees.http.connection-ttl-millis:300000}") long connectionTtlMillis,
+                                                  @Value("${employees.http.idle-timeout-millis:30000}") long idleTimeoutMillis) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setConnectionTimeToLive(TimeValue.of(connectionTtlMillis, TimeUnit.MILLISECONDS))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .evictIdleConnections(TimeValue.of(idleTimeoutMillis, TimeUnit.MILLISECONDS))
+            .evictExpiredConnections()
+            .disableAutomaticRetries()
+            .build();
+    }
+
+    /**
+     * The client Feign sends EmployeeClient calls through: the pooled http client, with connect and read timeouts picked per method.
+     */
+    @Bean
+    public Client employeeFeignClient(CloseableHttpClient employeeHttpClient,
+                                      @Value("${employees.http.connect-timeout-millis:2000}") long connectTimeoutMillis,
+                                      @Value("${employees.http.read-timeout-millis:3000}") long readTimeoutMillis,
+                                      @Value("${employees.http.method-timeouts:findAll=2000/5000}") String methodTimeouts) {
+        return MethodTimeoutClient.of(new ApacheHttp5Client(employeeHttpClient), connectTimeoutMillis, readTimeoutMillis, methodTimeouts);
+    }
+
+    /**
+     * Decodes the findAll and getById responses with a streaming parser, and everything else with Spring's ObjectMapper.
+     */
+    @Bean
+    public Decoder employeeFeignDecoder(ObjectMapper objectMapper) {
+        return new EmployeeResponseDecoder(objectMapper);
     }
 }
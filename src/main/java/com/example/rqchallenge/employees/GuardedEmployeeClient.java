@@ -0,0 +1,96 @@
+package com.example.rqchallenge.employees;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
+
+/**
+ * The EmployeeClient the rest of the app talks to.  It wraps the Feign client for the dummy api and is where call policies that
+ * apply to every upstream call live.
+ *
+ * Concurrent identical reads (findAll, or getById with the same id) share a single remote call.
+ * Writes are never shared; two creates with the same body are still two employees.
+ * Every call is retried through the RetryScheduler, which backs off without holding a thread and fails calls straight away while
+ * the circuit to the remote api is open.
+ *
+ * The async methods are the ones the request path uses; the caller's thread is free as soon as the call has been started.  The
+ * blocking ones wait for the same future and are only there for callers off the request path.
+ */
+@Primary
+@Component
+public class GuardedEmployeeClient implements EmployeeClient {
+
+    private final EmployeeClient remoteEmployeeClient;
+    private final RetryScheduler retryScheduler;
+    private final SingleFlight<String, BaseRemoteDto<List<Employee>>> findAllFlights = new SingleFlight<>();
+    private final SingleFlight<String, BaseRemoteDto<Employee>> getByIdFlights = new SingleFlight<>();
+
+    public GuardedEmployeeClient(@Qualifier("remoteEmployeeClient") EmployeeClient remoteEmployeeClient, RetryScheduler retryScheduler,
+                                 EmployeeMetrics metrics) {
+        this.remoteEmployeeClient = remoteEmployeeClient;
+        this.retryScheduler = retryScheduler;
+        metrics.registerSingleFlight("findAll", findAllFlights);
+        metrics.registerSingleFlight("getById", getByIdFlights);
+    }
+
+    @Override
+    public CompletableFuture<BaseRemoteDto<List<Employee>>> findAllAsync() {
+        return findAllFlights.submit("findAll", () -> retryScheduler.submit("findAll", true, remoteEmployeeClient::findAll));
+    }
+
+    @Override
+    public CompletableFuture<BaseRemoteDto<Employee>> getByIdAsync(String id) {
+        return getByIdFlights.submit(id, () -> retryScheduler.submit("getById", true, () -> remoteEmployeeClient.getById(id)));
+    }
+
+    @Override
+    public CompletableFuture<BaseRemoteDto<CreatedEmployee>> createAsync(Map<String, Object> employeeInput) {
+        return retryScheduler.submit("create", false, () -> remoteEmployeeClient.create(employeeInput));
+    }
+
+    @Override
+    public CompletableFuture<BaseRemoteDto<String>> deleteAsync(String id) {
+        return retryScheduler.submit("delete", true, () -> remoteEmployeeClient.delete(id));
+    }
+
+    @Override
+    public BaseRemoteDto<List<Employee>> findAll() {
+        return Futures.join(findAllAsync());
+    }
+
+    @Override
+    public BaseRemoteDto<Employee> getById(String id) {
+        return Futures.join(getByIdAsync(id));
+    }
+
+    @Override
+    public BaseRemoteDto<CreatedEmployee> create(Map<String, Object> employeeInput) {
+        return Futures.join(createAsync(employeeInput));
+    }
+
+    @Override
+    public BaseRemoteDto<String> delete(String id) {
+        return Futures.join(deleteAsync(id));
+    }
+
+    /**
+     * Number of read calls that were answered by sharing another caller's in-flight remote call.
+     */
+    public long getCoalescedCount() {
+        return findAllFlights.getCoalescedCount() + getByIdFlights.getCoalescedCount();
+    }
+
+    /**
+     * Number of read calls that actually went to the remote api.
+     */
+    public long getExecutedCount() {
+        return findAllFlights.getExecutedCount() + getByIdFlights.getExecutedCount();
+    }
+}
@@ -1,34 +1,74 @@
 package com.example.rqchallenge.employees;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public interface IEmployeeController {
 
     @GetMapping()
-    ResponseEntity<List<Employee>> getAllEmployees() throws IOException;
+    CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployeesAsNdjson();
+
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployeesAsJsonArray();
+
+    @GetMapping(params = "limit")
+    CompletableFuture<ResponseEntity<EmployeePage>> getEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort, @RequestParam(defaultValue = "asc") String direction);
 
     @GetMapping("/search/{searchString}")
-    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString);
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString, @RequestParam(defaultValue = "exact") String mode);
 
     @GetMapping("/{id}")
-    ResponseEntity<Employee> getEmployeeById(@PathVariable String id);
+    CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id);
 
     @GetMapping("/highestSalary")
-    ResponseEntity<Integer> getHighestSalaryOfEmployees();
+    CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
 
     @GetMapping("/topTenHighestEarningEmployeeNames")
-    ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames();
+    CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping("/statistics")
+    CompletableFuture<ResponseEntity<EmployeeStatistics>> getStatistics(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping("/top")
+    CompletableFuture<ResponseEntity<List<Employee>>> getTopEmployees(@RequestParam(defaultValue = "10") int k, @RequestParam(defaultValue = "salary") String field,
+            @RequestParam(defaultValue = "desc") String direction, @RequestParam(required = false) String name);
 
+    @GetMapping("/salaryRange")
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesBySalaryRange(@RequestParam int min, @RequestParam int max);
+
+    /**
+     * @return 200 with the created {@link Employee}, or, when the create queue is enabled, 202 with the queued {@link CreateJob} and
+     *         its status url in Location
+     */
     @PostMapping()
-    ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput);
+    CompletableFuture<ResponseEntity<?>> createEmployee(@RequestBody Map<String, Object> employeeInput);
+
+    @GetMapping("/jobs/{jobId}")
+    ResponseEntity<CreateJob> getCreateJob(@PathVariable String jobId);
+
+    @PostMapping("/batch/get")
+    CompletableFuture<ResponseEntity<Map<String, BatchItemResult<Employee>>>> getEmployeesByIds(@RequestBody List<String> ids);
+
+    @PostMapping("/batch/create")
+    CompletableFuture<ResponseEntity<List<BatchItemResult<Employee>>>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs);
 
     @DeleteMapping("/{id}")
-    ResponseEntity<String> deleteEmployeeById(@PathVariable String id);
+    CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id);
+
+    @PostMapping("/batch/delete")
+    CompletableFuture<ResponseEntity<Map<String, BatchItemResult<String>>>> deleteEmployeesByIds(@RequestBody List<String> ids);
 
 }
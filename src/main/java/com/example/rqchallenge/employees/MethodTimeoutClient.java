@@ -0,0 +1,92 @@
+package com.example.rqchallenge.employees;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+
+/**
+ * Feign Client decorator that picks the connect and read timeouts per EmployeeClient method.  findAll downloads the whole list and
+ * needs far longer than a single-employee call, so one timeout for both would be either too tight for findAll or too loose for the rest.
+ *
+ * Overrides are written as "method=connectMillis/readMillis", comma separated, e.g. "findAll=2000/5000,create=2000/4000".
+ * Methods without an override get the default timeouts.
+ */
+public class MethodTimeoutClient implements Client {
+
+    private final Client delegate;
+    private final Request.Options defaultOptions;
+    private final Map<String, Request.Options> optionsByMethod;
+
+    public MethodTimeoutClient(Client delegate, Request.Options defaultOptions, Map<String, Request.Options> optionsByMethod) {
+        this.delegate = delegate;
+        this.defaultOptions = defaultOptions;
+        this.optionsByMethod = Map.copyOf(optionsByMethod);
+    }
+
+    /**
+     * @throws IllegalArgumentException when an override is not written as method=connectMillis/readMillis
+     */
+    public static MethodTimeoutClient of(Client delegate, long connectTimeoutMillis, long readTimeoutMillis, String methodTimeouts) {
+        return new MethodTimeoutClient(delegate, options(connectTimeoutMillis, readTimeoutMillis), parse(methodTimeouts));
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        // The options Feign passes in are its own client-wide defaults; ours replace them
+        return delegate.execute(request, optionsFor(request));
+    }
+
+    /**
+     * @return the timeouts used for the given EmployeeClient method name, e.g. "findAll"
+     */
+    public Request.Options optionsFor(String method) {
+        return optionsByMethod.getOrDefault(method, defaultOptions);
+    }
+
+    // #region private methods
+    private Request.Options optionsFor(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.methodMetadata() == null) {
+            return defaultOptions;
+        }
+        // configKey looks like "EmployeeClient#getById(String)"
+        String configKey = template.methodMetadata().configKey();
+        int from = configKey.indexOf('#') + 1;
+        int to = configKey.indexOf('(', from);
+        return optionsFor(to < 0 ? configKey.substring(from) : configKey.substring(from, to));
+    }
+
+    private static Map<String, Request.Options> parse(String methodTimeouts) {
+        if (methodTimeouts == null || methodTimeouts.isBlank()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Request.Options> optionsByMethod = new HashMap<>();
+        for (String entry : methodTimeouts.split(",")) {
+            String[] methodAndTimeouts = entry.trim().split("=");
+            String[] timeouts = methodAndTimeouts.length == 2 ? methodAndTimeouts[1].trim().split("/") : new String[0];
+            if (timeouts.length != 2 || methodAndTimeouts[0].isBlank()) {
+                throw new IllegalArgumentException("Method timeout '" + entry.trim() + "' must look like method=connectMillis/readMillis");
+            }
+            try {
+                optionsByMethod.put(methodAndTimeouts[0].trim(), options(Long.parseLong(timeouts[0].trim()), Long.parseLong(timeouts[1].trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Method timeout '" + entry.trim() + "' must use whole milliseconds", e);
+            }
+        }
+        return optionsByMethod;
+    }
+
+    private static Request.Options options(long connectTimeoutMillis, long readTimeoutMillis) {
+        // Redirects stay off: the remote api has no business redirecting us, and a create must never be replayed elsewhere
+        return new Request.Options(connectTimeoutMillis, TimeUnit.MILLISECONDS, readTimeoutMillis, TimeUnit.MILLISECONDS, false);
+    }
+    //#endregion
+}
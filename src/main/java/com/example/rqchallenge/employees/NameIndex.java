@@ -0,0 +1,267 @@
+package com.example.rqchallenge.employees;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive name lookup over the rows of an employee list.
+ *
+ * A list fetched from the remote api is indexed from scratch, since the api gives no way to tell which rows changed between two
+ * fetches.  Creates and deletes written through this service update the index incrementally instead: withRowAppended and
+ * withRowRemoved copy only the posting lists the row touches and share the rest with the previous snapshot's index.
+ *
+ * Every name is case folded once at build time and kept as UTF-8 bytes in a StringColumn.  Exact and prefix matches binary search
+ * the rows sorted by folded name.  Substring matches intersect the posting lists of every byte trigram in the search string and then
+ * confirm the few remaining candidates; strings shorter than a trigram fall back to scanning the folded names.
+ * Results are always rows in source list order.
+ */
+public class NameIndex {
+
+    private static final int GRAM = 3;
+    private static final int[] NO_ROWS = new int[0];
+
+    private final StringColumn foldedNames;
+    private final int[] rowsByName;
+    private final Map<Integer, int[]> postings;
+
+    private NameIndex(StringColumn foldedNames, int[] rowsByName, Map<Integer, int[]> postings) {
+        this.foldedNames = foldedNames;
+        this.rowsByName = rowsByName;
+        this.postings = postings;
+    }
+
+    public static NameIndex build(EmployeeColumns columns) {
+        int size = columns.size();
+        List<String> folded = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            folded.add(fold(columns.name(row)));
+        }
+        StringColumn foldedNames = StringColumn.of(folded);
+
+        Integer[] sortedRows = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            sortedRows[row] = row;
+        }
+        Arrays.sort(sortedRows, (a, b) -> {
+            int byName = foldedNames.compareRows(a, b);
+            return byName != 0 ? byName : Integer.compare(a, b);
+        });
+        int[] rowsByName = new int[size];
+        for (int i = 0; i < size; i++) {
+            rowsByName[i] = sortedRows[i];
+        }
+
+        // Rows are visited in ascending order, so every posting list comes out sorted without a separate sort.
+        Map<Integer, RowList> building = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            for (int i = 0; i + GRAM <= foldedNames.length(row); i++) {
+                building.computeIfAbsent(gramAt(foldedNames, row, i), key -> new RowList()).add(row);
+            }
+        }
+        Map<Integer, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, rows) -> postings.put(gram, rows.toArray()));
+
+        return new NameIndex(foldedNames, rowsByName, postings);
+    }
+
+    /**
+     * Returns a copy of this index that also holds the given row, which must be the row right after the last one indexed.
+     * Only the posting lists of the new name's trigrams are copied; every other list is shared with this index.
+     */
+    public NameIndex withRowAppended(int row, String name) {
+        StringColumn names = foldedNames.withAppended(fold(name));
+        byte[] folded = utf8(fold(name));
+
+        // The new row is the highest, so among equal names it goes last
+        int[] byName = RowArrays.insertAt(rowsByName, firstRowAbove(folded), row);
+
+        Map<Integer, int[]> grams = new HashMap<>(postings);
+        for (int i = 0; i + GRAM <= folded.length; i++) {
+            int[] rows = grams.getOrDefault(gramAt(folded, i), NO_ROWS);
+            if (rows.length == 0 || rows[rows.length - 1] != row) {
+                grams.put(gramAt(folded, i), RowArrays.insertAt(rows, rows.length, row));
+            }
+        }
+        return new NameIndex(names, byName, grams);
+    }
+
+    /**
+     * Returns a copy of this index without the given row, with every later row shifted down by one.
+     * Posting lists that only hold earlier rows are shared with this index.
+     */
+    public NameIndex withRowRemoved(int row) {
+        Map<Integer, int[]> grams = new HashMap<>(postings.size() * 2);
+        postings.forEach((gram, rows) -> {
+            int[] kept = rows[rows.length - 1] < row ? rows : RowArrays.withoutRow(rows, row);
+            if (kept.length > 0) {
+                grams.put(gram, kept);
+            }
+        });
+        return new NameIndex(foldedNames.withoutRow(row), RowArrays.withoutRow(rowsByName, row), grams);
+    }
+
+    public int[] search(String searchString, NameSearchMode mode) {
+        byte[] query = utf8(fold(searchString));
+        switch (mode) {
+            case EXACT:
+                return exactRows(query);
+            case PREFIX:
+                return prefixRows(query);
+            case SUBSTRING:
+                return substringRows(query);
+            default:
+                throw new IllegalArgumentException("Unsupported name search mode: " + mode);
+        }
+    }
+
+    // #region private methods
+    private int[] exactRows(byte[] query) {
+        int from = firstRowAtLeast(query);
+        int to = from;
+        while (to < rowsByName.length && foldedNames.compareTo(rowsByName[to], query) == 0) {
+            to++;
+        }
+        return sortedCopy(from, to);
+    }
+
+    private int[] prefixRows(byte[] query) {
+        int from = firstRowAtLeast(query);
+        int to = from;
+        while (to < rowsByName.length && foldedNames.startsWith(rowsByName[to], query)) {
+            to++;
+        }
+        return sortedCopy(from, to);
+    }
+
+    private int[] substringRows(byte[] query) {
+        if (query.length < GRAM) {
+            RowList matches = new RowList();
+            for (int row = 0; row < foldedNames.size(); row++) {
+                if (foldedNames.contains(row, query)) {
+                    matches.add(row);
+                }
+            }
+            return matches.toArray();
+        }
+
+        int gramCount = query.length - GRAM + 1;
+        int[][] lists = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            int[] rows = postings.get(gramAt(query, i));
+            if (rows == null) {
+                return NO_ROWS;
+            }
+            lists[i] = rows;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(rows -> rows.length));
+
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+
+        // Every trigram being present does not mean they are adjacent, so confirm each surviving candidate.
+        RowList matches = new RowList();
+        for (int row : candidates) {
+            if (foldedNames.contains(row, query)) {
+                matches.add(row);
+            }
+        }
+        return matches.toArray();
+    }
+
+    private int firstRowAtLeast(byte[] query) {
+        int low = 0;
+        int high = rowsByName.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (foldedNames.compareTo(rowsByName[mid], query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstRowAbove(byte[] query) {
+        int low = 0;
+        int high = rowsByName.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (foldedNames.compareTo(rowsByName[mid], query) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int[] sortedCopy(int from, int to) {
+        int[] rows = Arrays.copyOfRange(rowsByName, from, to);
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    private static int[] intersect(int[] smaller, int[] larger) {
+        int[] result = new int[smaller.length];
+        int count = 0;
+        int j = 0;
+        for (int row : smaller) {
+            while (j < larger.length && larger[j] < row) {
+                j++;
+            }
+            if (j == larger.length) {
+                break;
+            }
+            if (larger[j] == row) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int gramAt(byte[] value, int index) {
+        return ((value[index] & 0xff) << 16) | ((value[index + 1] & 0xff) << 8) | (value[index + 2] & 0xff);
+    }
+
+    private static int gramAt(StringColumn column, int row, int index) {
+        return ((column.byteAt(row, index) & 0xff) << 16) | ((column.byteAt(row, index + 1) & 0xff) << 8) | (column.byteAt(row, index + 2) & 0xff);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String fold(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            // A name repeating a trigram visits the same row twice in a row; keep the posting list distinct.
+            if (size > 0 && rows[size - 1] == row) {
+                return;
+            }
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+    //#endregion
+}
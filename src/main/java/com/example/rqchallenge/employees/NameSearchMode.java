@@ -0,0 +1,25 @@
+package com.example.rqchallenge.employees;
+
+import java.util.Locale;
+
+/**
+ * How a name search string is matched against employee names.  All modes ignore case.
+ */
+public enum NameSearchMode {
+    EXACT,
+    PREFIX,
+    SUBSTRING;
+
+    /**
+     * Parses the mode query parameter ("exact", "prefix" or "substring", in any case).
+     *
+     * @throws IllegalArgumentException when the value is not one of the supported modes
+     */
+    public static NameSearchMode fromParameter(String value) {
+        try {
+            return NameSearchMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unsupported name search mode: " + value);
+        }
+    }
+}
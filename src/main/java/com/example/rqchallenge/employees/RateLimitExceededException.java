@@ -0,0 +1,12 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * Thrown when an upstream call cannot get a permit from the client-side rate limiter within its wait budget.
+ * The call was never sent, so it did not count against the remote api's quota.
+ */
+public class RateLimitExceededException extends UpstreamUnavailableException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * A value read for a request, together with how stale the data it came from was.  The staleness travels with the value because the
+ * read completes on whichever thread the upstream call finished on, not on the request's own thread.
+ */
+public class ReadResult<T> {
+    private final T value;
+    private final long staleAgeMillis;
+
+    /**
+     * @param staleAgeMillis how long ago the data was fetched, once that is past the cache ttl; -1 when it is fresh
+     */
+    public ReadResult(T value, long staleAgeMillis) {
+        this.value = value;
+        this.staleAgeMillis = staleAgeMillis;
+    }
+
+    public static <T> ReadResult<T> fresh(T value) {
+        return new ReadResult<>(value, -1);
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return how long ago the data was fetched, once that is past the cache ttl; -1 when it is fresh
+     */
+    public long getStaleAgeMillis() {
+        return staleAgeMillis;
+    }
+
+    public boolean isStale() {
+        return staleAgeMillis >= 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * Thrown when an upstream call could not complete, retries included, within its deadline budget.
+ */
+public class RetryDeadlineExceededException extends UpstreamUnavailableException {
+
+    public RetryDeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public RetryDeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
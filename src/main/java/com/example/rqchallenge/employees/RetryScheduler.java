@@ -0,0 +1,333 @@
+package com.example.rqchallenge.employees;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import feign.FeignException;
+import feign.RetryableException;
+
+/**
+ * Retries failed upstream calls without parking a thread during the backoff.
+ *
+ * Attempts run on a dedicated upstream pool; between attempts nothing is running - the next attempt is simply scheduled for later.
+ * Backoff is exponential with full jitter, a Retry-After header on the response wins over the computed backoff, and every call has
+ * a deadline budget: a retry that would not start before the deadline is not attempted and the last failure is returned instead, and
+ * a call still running when the deadline passes fails with a RetryDeadlineExceededException.
+ *
+ * 429s are retried for every call, because the remote api rejected the request before doing anything with it.
+ * Connection failures and 502/503/504s are only retried for idempotent calls.
+ *
+ * Every attempt, first and retries alike, takes a slot from the AdaptiveRateLimiter first.  Waiting for the slot is scheduled the same
+ * way as a backoff, and the outcome of the attempt is fed back to the limiter.
+ *
+ * Before that, every attempt asks the CircuitBreaker for permission.  While the circuit is open the call fails straight away with a
+ * CircuitOpenException, without taking a rate limiter slot or an upstream thread, and is not retried.
+ */
+@Component
+public class RetryScheduler {
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long deadlineMillis;
+    private final ExecutorService upstreamExecutor;
+    private final ScheduledExecutorService backoffScheduler;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final EmployeeMetrics metrics;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder backoffMillisTotal = new LongAdder();
+
+    Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+
+    @Autowired
+    public RetryScheduler(@Value("${employees.retry.max-attempts:4}") int maxAttempts,
+                          @Value("${employees.retry.base-backoff-millis:200}") long baseBackoffMillis,
+                          @Value("${employees.retry.max-backoff-millis:5000}") long maxBackoffMillis,
+                          @Value("${employees.retry.deadline-millis:10000}") long deadlineMillis,
+                          @Value("${employees.upstream.threads:64}") int upstreamThreads,
+                          @Value("${employees.virtual-threads.enabled:false}") boolean virtualThreads,
+                          AdaptiveRateLimiter rateLimiter,
+                          CircuitBreaker circuitBreaker,
+                          EmployeeMetrics metrics) {
+        this(maxAttempts, baseBackoffMillis, maxBackoffMillis, deadlineMillis,
+            virtualThreads
+                ? VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(upstreamThreads, daemonThreads("employee-upstream")),
+            newTimerScheduler("employee-retry-backoff"),
+            rateLimiter, circuitBreaker, metrics);
+    }
+
+    public RetryScheduler(int maxAttempts, long baseBackoffMillis, long maxBackoffMillis, long deadlineMillis,
+                          ExecutorService upstreamExecutor, ScheduledExecutorService backoffScheduler, AdaptiveRateLimiter rateLimiter,
+                          CircuitBreaker circuitBreaker, EmployeeMetrics metrics) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.deadlineMillis = deadlineMillis;
+        this.upstreamExecutor = upstreamExecutor;
+        this.backoffScheduler = backoffScheduler;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
+        metrics.registerRetryScheduler(this);
+    }
+
+    /**
+     * Starts the call and returns straight away.  The future completes with the first successful result, or with the last failure once
+     * the call is out of attempts, out of deadline, or fails with something that should not be retried.  It always completes within
+     * the deadline budget.
+     */
+    public <T> CompletableFuture<T> submit(String operation, boolean idempotent, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        try {
+            ScheduledFuture<?> deadline = backoffScheduler.schedule(() -> {
+                // Counted before the future completes, so whoever it wakes already sees the count; taken back if the call won the race
+                exhausted.increment();
+                if (!result.completeExceptionally(new RetryDeadlineExceededException(operation + " did not complete within " + deadlineMillis + "ms"))) {
+                    exhausted.decrement();
+                }
+            }, deadlineMillis, TimeUnit.MILLISECONDS);
+            result.whenComplete((value, failure) -> deadline.cancel(false));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        runAttempt(operation, idempotent, call, result, 1, deadlineNanos);
+        return result;
+    }
+
+    /**
+     * Blocking convenience over submit, for callers off the request path that need the value itself.  The caller waits for the
+     * deadline budget at most, and failures are rethrown as they came back from the remote api.
+     */
+    public <T> T call(String operation, boolean idempotent, Supplier<T> call) {
+        return Futures.join(submit(operation, idempotent, call));
+    }
+
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Number of calls that gave up because they ran out of attempts or deadline.
+     */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    public long getBackoffMillisTotal() {
+        return backoffMillisTotal.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backoffScheduler.shutdownNow();
+        upstreamExecutor.shutdownNow();
+    }
+
+    // #region private methods
+    private <T> void runAttempt(String operation, boolean idempotent, Supplier<T> call, CompletableFuture<T> result, int attempt, long deadlineNanos) {
+        if (result.isDone()) {
+            return;
+        }
+
+        if (!circuitBreaker.tryAcquirePermission()) {
+            metrics.recordCircuitRejection(operation);
+            result.completeExceptionally(new CircuitOpenException(operation + " was not sent because the circuit to the remote api is open",
+                circuitBreaker.getRetryAfterMillis()));
+            return;
+        }
+
+        long waitNanos = rateLimiter.reserve(deadlineNanos - System.nanoTime());
+        if (waitNanos < 0) {
+            circuitBreaker.releasePermission();
+            result.completeExceptionally(new RateLimitExceededException(operation + " could not get an upstream slot within its wait budget"));
+            return;
+        }
+
+        try {
+            if (waitNanos == 0) {
+                dispatchAttempt(operation, idempotent, call, result, attempt, deadlineNanos);
+            } else {
+                backoffScheduler.schedule(() -> dispatchAttempt(operation, idempotent, call, result, attempt, deadlineNanos), waitNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (RuntimeException e) {
+            circuitBreaker.releasePermission();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private <T> void dispatchAttempt(String operation, boolean idempotent, Supplier<T> call, CompletableFuture<T> result, int attempt, long deadlineNanos) {
+        if (result.isDone()) {
+            circuitBreaker.releasePermission();
+            return;
+        }
+
+        try {
+            upstreamExecutor.execute(() -> {
+                attempts.increment();
+                long startedNanos = System.nanoTime();
+                try {
+                    T value = call.get();
+                    metrics.recordUpstreamAttempt(operation, null, System.nanoTime() - startedNanos);
+                    circuitBreaker.onResult(null);
+                    rateLimiter.onSuccess();
+                    result.complete(value);
+                } catch (RuntimeException e) {
+                    metrics.recordUpstreamAttempt(operation, e, System.nanoTime() - startedNanos);
+                    circuitBreaker.onResult(e);
+                    if (e instanceof FeignException && ((FeignException) e).status() == 429) {
+                        rateLimiter.onThrottled();
+                    }
+                    onFailure(operation, idempotent, call, result, attempt, deadlineNanos, e);
+                } catch (Error e) {
+                    circuitBreaker.releasePermission();
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            circuitBreaker.releasePermission();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private <T> void onFailure(String operation, boolean idempotent, Supplier<T> call, CompletableFuture<T> result, int attempt, long deadlineNanos, RuntimeException failure) {
+        if (!isRetryable(failure, idempotent)) {
+            result.completeExceptionally(failure);
+            return;
+        }
+
+        long backoffMillis = backoffMillis(attempt, failure);
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (attempt >= maxAttempts || backoffMillis >= remainingMillis) {
+            exhausted.increment();
+            logger.debug("{} failed on attempt {}; not retrying (backoff {}ms, {}ms of deadline left)", operation, attempt, backoffMillis, remainingMillis);
+            if (!result.completeExceptionally(failure)) {
+                // The deadline already failed the call and counted it
+                exhausted.decrement();
+            }
+            return;
+        }
+
+        retries.increment();
+        metrics.recordRetry(operation);
+        backoffMillisTotal.add(backoffMillis);
+        logger.debug("{} failed on attempt {}; retrying in {}ms", operation, attempt, backoffMillis);
+        try {
+            backoffScheduler.schedule(() -> runAttempt(operation, idempotent, call, result, attempt + 1, deadlineNanos), backoffMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException failure, boolean idempotent) {
+        if (!(failure instanceof FeignException)) {
+            return false;
+        }
+        int status = ((FeignException) failure).status();
+        if (status == 429) {
+            return true;
+        }
+        if (!idempotent) {
+            return false;
+        }
+        return failure instanceof RetryableException || status == 502 || status == 503 || status == 504;
+    }
+
+    private long backoffMillis(int attempt, RuntimeException failure) {
+        long retryAfterMillis = retryAfterMillis(failure);
+        if (retryAfterMillis >= 0) {
+            return retryAfterMillis;
+        }
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * @return the delay the remote api asked for through Retry-After (delta-seconds or an http date), or -1 when it did not ask
+     */
+    private static long retryAfterMillis(RuntimeException failure) {
+        if (!(failure instanceof FeignException)) {
+            return -1;
+        }
+        Map<String, Collection<String>> headers = ((FeignException) failure).responseHeaders();
+        if (headers == null) {
+            return -1;
+        }
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if ("Retry-After".equalsIgnoreCase(header.getKey()) && header.getValue() != null) {
+                for (String value : header.getValue()) {
+                    long millis = parseRetryAfter(value.trim());
+                    if (millis >= 0) {
+                        return millis;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long parseRetryAfter(String value) {
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try an http date
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt).toMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    static ScheduledExecutorService newTimerScheduler(String name) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, daemonThreads(name));
+        // Every call schedules its deadline here and cancels it once done; cancelled timers should not sit in the queue until they expire
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    //#endregion
+}
@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Copy-on-write edits of the row arrays and null masks held by the snapshot columns and indexes.
+ * Rows are positions in the snapshot's employee list.
+ */
+final class RowArrays {
+
+    private RowArrays() {
+    }
+
+    /**
+     * @return a copy of rows with value inserted at index
+     */
+    static int[] insertAt(int[] rows, int index, int value) {
+        int[] result = new int[rows.length + 1];
+        System.arraycopy(rows, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(rows, index, result, index + 1, rows.length - index);
+        return result;
+    }
+
+    /**
+     * Drops row and shifts every later row down by one, matching the employee list once that row is removed from it.
+     * The order of the remaining rows is kept.
+     */
+    static int[] withoutRow(int[] rows, int row) {
+        int[] result = new int[rows.length];
+        int count = 0;
+        for (int value : rows) {
+            if (value != row) {
+                result[count++] = value > row ? value - 1 : value;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Drops the bit of row and shifts every later bit down by one, matching a column once that row is removed from it.
+     */
+    static BitSet withoutBit(BitSet bits, int row) {
+        BitSet result = bits.get(0, row);
+        for (int bit = bits.nextSetBit(row + 1); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+            result.set(bit - 1);
+        }
+        return result;
+    }
+}
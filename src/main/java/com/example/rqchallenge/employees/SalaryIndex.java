@@ -0,0 +1,134 @@
+package com.example.rqchallenge.employees;
+
+import java.util.Arrays;
+
+/**
+ * Salary-ordered view over the rows of an employee list, built once per snapshot.
+ *
+ * Two parallel primitive arrays hold the salaries in ascending order and the row (position in the source list) each salary came from,
+ * so the highest salary is the last slot, the top N earners are the last N slots and a salary range is two binary searches.
+ * Employees without a salary are left out of the index.  Equal salaries are ordered by row.
+ */
+public class SalaryIndex {
+
+    private final int[] salaries;
+    private final int[] rows;
+
+    private SalaryIndex(int[] salaries, int[] rows) {
+        this.salaries = salaries;
+        this.rows = rows;
+    }
+
+    public static SalaryIndex build(EmployeeColumns columns) {
+        // Pack salary and row into one long so a single primitive sort orders by salary, then by row.
+        long[] packed = new long[columns.size()];
+        int count = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.hasSalary(row)) {
+                packed[count++] = ((long) columns.salaryAt(row) << 32) | row;
+            }
+        }
+        Arrays.sort(packed, 0, count);
+
+        int[] salaries = new int[count];
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            salaries[i] = (int) (packed[i] >> 32);
+            rows[i] = (int) packed[i];
+        }
+        return new SalaryIndex(salaries, rows);
+    }
+
+    public int size() {
+        return salaries.length;
+    }
+
+    /**
+     * @return the salary at a position of the index, lowest salary at position 0
+     */
+    public int sortedSalaryAt(int position) {
+        return salaries[position];
+    }
+
+    /**
+     * @return the highest salary, or null when no employee has a salary
+     */
+    public Integer highestSalary() {
+        return salaries.length == 0 ? null : salaries[salaries.length - 1];
+    }
+
+    /**
+     * @return the rows of the (up to) n highest earners, highest first
+     */
+    public int[] topRows(int n) {
+        int count = Math.min(Math.max(n, 0), rows.length);
+        int[] top = new int[count];
+        for (int i = 0; i < count; i++) {
+            top[i] = rows[rows.length - 1 - i];
+        }
+        return top;
+    }
+
+    /**
+     * @return the rows of the (up to) n lowest earners, lowest first
+     */
+    public int[] bottomRows(int n) {
+        return Arrays.copyOf(rows, Math.min(Math.max(n, 0), rows.length));
+    }
+
+    /**
+     * @return the rows whose salary falls within [min, max], lowest salary first
+     */
+    public int[] rowsInRange(int min, int max) {
+        if (min > max) {
+            return new int[0];
+        }
+        int from = firstIndexAtLeast(min);
+        int to = max == Integer.MAX_VALUE ? salaries.length : firstIndexAtLeast(max + 1);
+        return Arrays.copyOfRange(rows, from, to);
+    }
+
+    /**
+     * Returns a copy of this index that also holds the given row, which must come after every row already indexed.
+     */
+    public SalaryIndex withRowAppended(int row, Integer salary) {
+        if (salary == null) {
+            return this;
+        }
+        // The new row is the highest, so among equal salaries it goes last
+        int at = salary == Integer.MAX_VALUE ? salaries.length : firstIndexAtLeast(salary + 1);
+        return new SalaryIndex(RowArrays.insertAt(salaries, at, salary), RowArrays.insertAt(rows, at, row));
+    }
+
+    /**
+     * Returns a copy of this index without the given row, with every later row shifted down by one.
+     */
+    public SalaryIndex withRowRemoved(int row) {
+        int[] keptSalaries = new int[salaries.length];
+        int[] keptRows = new int[rows.length];
+        int count = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != row) {
+                keptSalaries[count] = salaries[i];
+                keptRows[count++] = rows[i] > row ? rows[i] - 1 : rows[i];
+            }
+        }
+        return new SalaryIndex(Arrays.copyOf(keptSalaries, count), Arrays.copyOf(keptRows, count));
+    }
+
+    // #region private methods
+    private int firstIndexAtLeast(int salary) {
+        int low = 0;
+        int high = salaries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (salaries[mid] < salary) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    //#endregion
+}
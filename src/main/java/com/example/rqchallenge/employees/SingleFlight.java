@@ -0,0 +1,66 @@
+package com.example.rqchallenge.employees;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into a single execution.
+ *
+ * The first caller for a key starts the call; anyone arriving with the same key while that call is still in flight gets a future that
+ * completes with the same result (or the same failure).  Nobody waits on a thread for it.  Once the call completes the key is
+ * released, so results are never cached here - this only removes duplicate work that is happening at the same moment.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CompletableFuture<V> submit(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            // A copy, so a caller cancelling its own future cannot fail everyone else's
+            return existing.copy();
+        }
+
+        executed.increment();
+        CompletableFuture<V> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((value, failure) -> {
+            // Released before anyone sees the result, so a caller reacting to it starts a new flight rather than joining this one
+            inFlight.remove(key, flight);
+            if (failure != null) {
+                flight.completeExceptionally(Futures.unwrap(failure));
+            } else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+
+    /**
+     * Number of calls that actually ran.
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * Number of calls that piggybacked on a call already in flight instead of running themselves.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
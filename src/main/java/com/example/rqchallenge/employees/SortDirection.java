@@ -0,0 +1,21 @@
+package com.example.rqchallenge.employees;
+
+import java.util.Locale;
+
+public enum SortDirection {
+    ASC,
+    DESC;
+
+    /**
+     * Parses the direction query parameter ("asc" or "desc", in any case).
+     *
+     * @throws IllegalArgumentException when the value is not a supported direction
+     */
+    public static SortDirection fromParameter(String value) {
+        try {
+            return SortDirection.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unsupported sort direction: " + value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.rqchallenge.employees;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Immutable column of strings stored as one UTF-8 byte array plus an offset per row, instead of one String object per row.
+ *
+ * Comparisons and matches run on the bytes directly.  UTF-8 keeps code point order under unsigned byte comparison and never
+ * lets one character's bytes match inside another's, so ordering, prefix and substring checks give the same answers as on strings.
+ */
+final class StringColumn {
+
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final BitSet nulls;
+
+    private StringColumn(byte[] bytes, int[] offsets, BitSet nulls) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.nulls = nulls;
+    }
+
+    static StringColumn of(List<String> values) {
+        byte[][] encoded = new byte[values.size()][];
+        BitSet nulls = new BitSet(values.size());
+        int total = 0;
+        for (int row = 0; row < encoded.length; row++) {
+            String value = values.get(row);
+            if (value == null) {
+                nulls.set(row);
+                encoded[row] = new byte[0];
+            } else {
+                encoded[row] = value.getBytes(StandardCharsets.UTF_8);
+            }
+            total += encoded[row].length;
+        }
+
+        byte[] bytes = new byte[total];
+        int[] offsets = new int[encoded.length + 1];
+        for (int row = 0; row < encoded.length; row++) {
+            System.arraycopy(encoded[row], 0, bytes, offsets[row], encoded[row].length);
+            offsets[row + 1] = offsets[row] + encoded[row].length;
+        }
+        return new StringColumn(bytes, offsets, nulls);
+    }
+
+    int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Materializes the value of a row as a String.
+     */
+    String get(int row) {
+        return nulls.get(row) ? null : new String(bytes, offsets[row], length(row), StandardCharsets.UTF_8);
+    }
+
+    int length(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    byte byteAt(int row, int index) {
+        return bytes[offsets[row] + index];
+    }
+
+    /**
+     * Compares the row's bytes with other as unsigned bytes.  A null row compares like an empty string.
+     */
+    int compareTo(int row, byte[] other) {
+        return Arrays.compareUnsigned(bytes, offsets[row], offsets[row + 1], other, 0, other.length);
+    }
+
+    int compareRows(int row, int otherRow) {
+        return Arrays.compareUnsigned(bytes, offsets[row], offsets[row + 1], bytes, offsets[otherRow], offsets[otherRow + 1]);
+    }
+
+    boolean startsWith(int row, byte[] prefix) {
+        return length(row) >= prefix.length && Arrays.equals(bytes, offsets[row], offsets[row] + prefix.length, prefix, 0, prefix.length);
+    }
+
+    boolean contains(int row, byte[] needle) {
+        int last = offsets[row + 1] - needle.length;
+        for (int start = offsets[row]; start <= last; start++) {
+            if (Arrays.equals(bytes, start, start + needle.length, needle, 0, needle.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    StringColumn withAppended(String value) {
+        byte[] encoded = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int row = size();
+        byte[] newBytes = Arrays.copyOf(bytes, bytes.length + encoded.length);
+        System.arraycopy(encoded, 0, newBytes, bytes.length, encoded.length);
+        int[] newOffsets = Arrays.copyOf(offsets, offsets.length + 1);
+        newOffsets[row + 1] = newBytes.length;
+
+        BitSet newNulls = (BitSet) nulls.clone();
+        if (value == null) {
+            newNulls.set(row);
+        }
+        return new StringColumn(newBytes, newOffsets, newNulls);
+    }
+
+    StringColumn withoutRow(int row) {
+        int removed = length(row);
+        byte[] newBytes = new byte[bytes.length - removed];
+        System.arraycopy(bytes, 0, newBytes, 0, offsets[row]);
+        System.arraycopy(bytes, offsets[row + 1], newBytes, offsets[row], bytes.length - offsets[row + 1]);
+
+        int[] newOffsets = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, newOffsets, 0, row + 1);
+        for (int i = row + 1; i < newOffsets.length; i++) {
+            newOffsets[i] = offsets[i + 1] - removed;
+        }
+        return new StringColumn(newBytes, newOffsets, RowArrays.withoutBit(nulls, row));
+    }
+}
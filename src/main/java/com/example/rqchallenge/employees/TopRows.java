@@ -0,0 +1,178 @@
+package com.example.rqchallenge.employees;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Top-k selection over the rows of an EmployeeColumns store, ranked by salary or age.
+ *
+ * Each candidate row is packed with its value into one long - the value in the high half, the row in the low half - so ranking is a
+ * single primitive comparison and ties go to the row, the same order SalaryIndex keeps.  A k-sized min-heap of packed keys holds the
+ * best rows seen so far, so memory stays O(k) however many rows are scanned.  Above parallelThreshold candidates the scan is split
+ * into fork-join tasks with a heap each, and the partial heaps are merged on the way back up.
+ *
+ * Rows without a value for the ranking field are skipped.
+ */
+public final class TopRows {
+
+    /**
+     * Below this many candidates a single thread scans faster than tasks can be forked and joined.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private TopRows() {
+    }
+
+    /**
+     * @param candidates the rows to choose from, or null for every row
+     * @return the rows of the (up to) k best candidates, best first: highest value first for DESC, lowest first for ASC
+     */
+    public static int[] select(EmployeeColumns columns, int[] candidates, EmployeeSortField field, SortDirection direction, int k) {
+        return select(columns, candidates, field, direction, k, PARALLEL_THRESHOLD);
+    }
+
+    public static int[] select(EmployeeColumns columns, int[] candidates, EmployeeSortField field, SortDirection direction, int k,
+                               int parallelThreshold) {
+        if (field != EmployeeSortField.SALARY && field != EmployeeSortField.AGE) {
+            throw new IllegalArgumentException("Employees can only be ranked by salary or age, not " + field);
+        }
+        if (k <= 0) {
+            return new int[0];
+        }
+
+        int count = candidates == null ? columns.size() : candidates.length;
+        SelectTask task = new SelectTask(columns, candidates, field == EmployeeSortField.AGE, direction == SortDirection.DESC, k,
+            Math.max(1, parallelThreshold), 0, count);
+        BoundedHeap best = count <= parallelThreshold ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+
+        long[] ranked = best.sortedBestFirst();
+        int[] rows = new int[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            // The row is the low half of the packed key, whichever way round it was ranked
+            rows[i] = (int) (direction == SortDirection.DESC ? ranked[i] : ~ranked[i]);
+        }
+        return rows;
+    }
+
+    // #region private methods
+    private static final class SelectTask extends RecursiveTask<BoundedHeap> {
+        private final EmployeeColumns columns;
+        private final int[] candidates;
+        private final boolean byAge;
+        private final boolean descending;
+        private final int k;
+        private final int threshold;
+        private final int from;
+        private final int to;
+
+        SelectTask(EmployeeColumns columns, int[] candidates, boolean byAge, boolean descending, int k, int threshold, int from, int to) {
+            this.columns = columns;
+            this.candidates = candidates;
+            this.byAge = byAge;
+            this.descending = descending;
+            this.k = k;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BoundedHeap compute() {
+            if (to - from <= threshold) {
+                return scan();
+            }
+
+            int mid = (from + to) >>> 1;
+            SelectTask left = new SelectTask(columns, candidates, byAge, descending, k, threshold, from, mid);
+            left.fork();
+            BoundedHeap right = new SelectTask(columns, candidates, byAge, descending, k, threshold, mid, to).compute();
+            BoundedHeap merged = left.join();
+            merged.offerAll(right);
+            return merged;
+        }
+
+        private BoundedHeap scan() {
+            BoundedHeap heap = new BoundedHeap(k);
+            for (int i = from; i < to; i++) {
+                int row = candidates == null ? i : candidates[i];
+                if (byAge ? columns.hasAge(row) : columns.hasSalary(row)) {
+                    long packed = ((long) (byAge ? columns.ageAt(row) : columns.salaryAt(row)) << 32) | row;
+                    // Ascending keeps the smallest keys; the bitwise complement turns that into keeping the largest
+                    heap.offer(descending ? packed : ~packed);
+                }
+            }
+            return heap;
+        }
+    }
+
+    /**
+     * Min-heap that keeps the largest `capacity` keys offered to it.
+     */
+    private static final class BoundedHeap {
+        private final long[] keys;
+        private int size;
+
+        BoundedHeap(int capacity) {
+            this.keys = new long[capacity];
+        }
+
+        void offer(long key) {
+            if (size < keys.length) {
+                keys[size] = key;
+                siftUp(size++);
+            } else if (key > keys[0]) {
+                keys[0] = key;
+                siftDown(0);
+            }
+        }
+
+        void offerAll(BoundedHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.keys[i]);
+            }
+        }
+
+        long[] sortedBestFirst() {
+            long[] sorted = Arrays.copyOf(keys, size);
+            Arrays.sort(sorted);
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                long swap = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = swap;
+            }
+            return sorted;
+        }
+
+        private void siftUp(int index) {
+            long key = keys[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[index] = keys[parent];
+                index = parent;
+            }
+            keys[index] = key;
+        }
+
+        private void siftDown(int index) {
+            long key = keys[index];
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[index] = keys[child];
+                index = child;
+            }
+            keys[index] = key;
+        }
+    }
+    //#endregion
+}
@@ -0,0 +1,16 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * Base for failures where an upstream call was refused or cut short on our side (rate limit, deadline, open circuit) rather than
+ * answered with an error by the remote api.  The endpoints answer these with 503.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+
+    public UpstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
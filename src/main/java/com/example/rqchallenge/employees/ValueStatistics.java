@@ -0,0 +1,154 @@
+package com.example.rqchallenge.employees;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Summary of one numeric employee field over the employees that have a value for it.
+ *
+ * Percentiles use the nearest-rank method, so every percentile is a value some employee actually has.  The histogram splits
+ * [min, max] into at most HISTOGRAM_BUCKETS buckets of equal width; bucket bounds are inclusive.  Everything but count is null
+ * when no employee has a value.
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class ValueStatistics {
+
+    static final int HISTOGRAM_BUCKETS = 10;
+
+    private final int count;
+    private final Integer min;
+    private final Integer max;
+    private final Double mean;
+    private final Integer p50;
+    private final Integer p90;
+    private final Integer p99;
+    private final List<HistogramBucket> histogram;
+
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class HistogramBucket {
+        private final int from;
+        private final int to;
+        private final int count;
+
+        public HistogramBucket(int from, int to, int count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private ValueStatistics(int count, Integer min, Integer max, Double mean, Integer p50, Integer p90, Integer p99, List<HistogramBucket> histogram) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.histogram = histogram;
+    }
+
+    /**
+     * @param count         number of values
+     * @param sortedValueAt the value at a position of the values in ascending order
+     */
+    public static ValueStatistics of(int count, IntUnaryOperator sortedValueAt) {
+        if (count == 0) {
+            return new ValueStatistics(0, null, null, null, null, null, null, List.of());
+        }
+
+        long sum = 0;
+        for (int position = 0; position < count; position++) {
+            sum += sortedValueAt.applyAsInt(position);
+        }
+        int min = sortedValueAt.applyAsInt(0);
+        int max = sortedValueAt.applyAsInt(count - 1);
+
+        return new ValueStatistics(count, min, max, (double) sum / count,
+            percentile(50, count, sortedValueAt), percentile(90, count, sortedValueAt), percentile(99, count, sortedValueAt),
+            histogram(min, max, count, sortedValueAt));
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public Double getMean() {
+        return mean;
+    }
+
+    public Integer getP50() {
+        return p50;
+    }
+
+    public Integer getP90() {
+        return p90;
+    }
+
+    public Integer getP99() {
+        return p99;
+    }
+
+    public List<HistogramBucket> getHistogram() {
+        return histogram;
+    }
+
+    // #region private methods
+    private static int percentile(int percent, int count, IntUnaryOperator sortedValueAt) {
+        int rank = (int) Math.ceil(percent / 100.0 * count);
+        return sortedValueAt.applyAsInt(Math.max(rank, 1) - 1);
+    }
+
+    private static List<HistogramBucket> histogram(int min, int max, int count, IntUnaryOperator sortedValueAt) {
+        // Long arithmetic: the span of two ints does not fit in an int
+        long width = Math.max(1, (((long) max - min + 1) + HISTOGRAM_BUCKETS - 1) / HISTOGRAM_BUCKETS);
+        List<HistogramBucket> buckets = new ArrayList<>(HISTOGRAM_BUCKETS);
+        int start = 0;
+        for (long from = min; from <= max; from += width) {
+            long to = Math.min(max, from + width - 1);
+            int end = to == max ? count : firstPositionAbove(to, count, sortedValueAt);
+            buckets.add(new HistogramBucket((int) from, (int) to, end - start));
+            start = end;
+        }
+        return buckets;
+    }
+
+    private static int firstPositionAbove(long value, int count, IntUnaryOperator sortedValueAt) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValueAt.applyAsInt(mid) <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    //#endregion
+}
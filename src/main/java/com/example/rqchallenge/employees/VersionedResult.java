@@ -0,0 +1,18 @@
+package com.example.rqchallenge.employees;
+
+/**
+ * A value computed from one employee snapshot, together with that snapshot's version.  Both come from the same snapshot, so a tag
+ * built from the version always describes exactly the value it is sent with.
+ */
+public class VersionedResult<T> extends ReadResult<T> {
+    private final long version;
+
+    public VersionedResult(T value, long version, long staleAgeMillis) {
+        super(value, staleAgeMillis);
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
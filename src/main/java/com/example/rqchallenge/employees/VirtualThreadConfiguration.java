@@ -0,0 +1,45 @@
+package com.example.rqchallenge.employees;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in (employees.virtual-threads.enabled=true) mode that runs request handling on virtual threads.
+ *
+ * Tomcat hands every request to a new virtual thread instead of its worker pool, and the RetryScheduler runs upstream calls on virtual
+ * threads as well (see its constructor).  Requests no longer wait on the remote api, so the gain is mostly in the upstream pool: an
+ * attempt blocked on a slow remote call costs a few hundred bytes of heap instead of a platform thread.  Virtual threads need a
+ * Java 21+ runtime; the build still targets 17, so the executor is looked up reflectively and startup fails with a clear message on
+ * an older runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * @throws IllegalStateException when the runtime does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("employees.virtual-threads.enabled requires a Java 21 or newer runtime", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create a virtual thread executor", e);
+        }
+    }
+}
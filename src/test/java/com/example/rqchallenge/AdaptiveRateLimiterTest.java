@@ -0,0 +1,116 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.AdaptiveRateLimiter;
+import com.example.rqchallenge.employees.EmployeeMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdaptiveRateLimiterTest {
+
+    private static final long NO_BUDGET_LIMIT = Long.MAX_VALUE;
+
+    private final AtomicLong clock = new AtomicLong();
+    private AdaptiveRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // 10 calls/s -> one slot every 100ms, callers may wait up to 250ms
+        rateLimiter = new AdaptiveRateLimiter(10, 1, 20, 1, 0.5, 250, clock::get);
+    }
+
+    @Test
+    void reserve_pacesCallsOneIntervalApart() {
+        assertEquals(0, rateLimiter.reserve(NO_BUDGET_LIMIT));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.reserve(NO_BUDGET_LIMIT));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.reserve(NO_BUDGET_LIMIT));
+        assertEquals(2, rateLimiter.getDelayedCount());
+    }
+
+    @Test
+    void reserve_refuses_whenWaitExceedsMaxWait() {
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+
+        assertEquals(-1, rateLimiter.reserve(NO_BUDGET_LIMIT));
+        assertEquals(1, rateLimiter.getRejectedCount());
+    }
+
+    @Test
+    void reserve_refuses_whenWaitExceedsCallersBudget() {
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+
+        assertEquals(-1, rateLimiter.reserve(TimeUnit.MILLISECONDS.toNanos(50)));
+    }
+
+    @Test
+    void reserve_doesNotBankUnusedSlots_whenIdle() {
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, rateLimiter.reserve(NO_BUDGET_LIMIT));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.reserve(NO_BUDGET_LIMIT));
+    }
+
+    @Test
+    void onSuccess_growsRateByAdditiveIncreasePerSecondOfSuccesses() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onSuccess();
+        }
+
+        double rate = rateLimiter.getCurrentRate();
+        assertTrue(rate > 10.9 && rate < 11.0, "Ten successes at 10/s should add just under 1/s, was " + rate);
+    }
+
+    @Test
+    void onThrottled_halvesRateOncePerCooldown() {
+        rateLimiter.onThrottled();
+        rateLimiter.onThrottled();
+        assertEquals(5.0, rateLimiter.getCurrentRate(), 0.0001);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.onThrottled();
+        assertEquals(2.5, rateLimiter.getCurrentRate(), 0.0001);
+        assertEquals(3, rateLimiter.getThrottledCount());
+    }
+
+    @Test
+    void rate_staysWithinConfiguredBounds() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onThrottled();
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(1.0, rateLimiter.getCurrentRate(), 0.0001);
+
+        for (int i = 0; i < 10000; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertEquals(20.0, rateLimiter.getCurrentRate(), 0.0001);
+    }
+
+    @Test
+    void registeredMeters_reportRateAndCounts() {
+        var meterRegistry = new SimpleMeterRegistry();
+        new EmployeeMetrics(meterRegistry).registerRateLimiter(rateLimiter);
+
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        rateLimiter.reserve(NO_BUDGET_LIMIT);
+        rateLimiter.onThrottled();
+
+        assertEquals(5.0, meterRegistry.get("employees.ratelimit.current").gauge().value(), 0.0001);
+        assertEquals(2.0, meterRegistry.get("employees.ratelimit.delayed").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("employees.ratelimit.rejected").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("employees.ratelimit.throttled").functionCounter().count());
+    }
+}
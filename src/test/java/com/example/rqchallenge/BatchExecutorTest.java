@@ -0,0 +1,103 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.BatchExecutor;
+import com.example.rqchallenge.employees.BatchItemResult;
+import com.example.rqchallenge.employees.UpstreamUnavailableException;
+
+public class BatchExecutorTest {
+
+    private final List<Runnable> deadlines = new ArrayList<>();
+    // Records each batch deadline so the test decides when it passes
+    private final ScheduledThreadPoolExecutor deadlineScheduler = new ScheduledThreadPoolExecutor(1) {
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            deadlines.add(command);
+            return super.schedule(() -> { }, 1, TimeUnit.DAYS);
+        }
+    };
+    private final Map<String, CompletableFuture<BatchItemResult<String>>> calls = new HashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        deadlineScheduler.shutdownNow();
+    }
+
+    @Test
+    void run_keepsAtMostConcurrencyCallsInFlight_andReturnsResultsInItemOrder() {
+        var batchExecutor = new BatchExecutor(2, 10, 60_000, deadlineScheduler);
+
+        CompletableFuture<List<BatchItemResult<String>>> results = batchExecutor.run(List.of("a", "b", "c"), this::call);
+
+        assertEquals(List.of("a", "b"), new ArrayList<>(calls.keySet()).stream().sorted().toList());
+        calls.get("b").complete(BatchItemResult.ok("B"));
+        assertTrue(calls.containsKey("c"));
+        calls.get("c").completeExceptionally(new UpstreamUnavailableException("throttled"));
+        calls.get("a").complete(BatchItemResult.ok("A"));
+
+        List<BatchItemResult<String>> done = results.join();
+        assertEquals("A", done.get(0).getData());
+        assertEquals("B", done.get(1).getData());
+        assertEquals(503, done.get(2).getStatus());
+    }
+
+    @Test
+    void run_startsSmallBatchAtTheNextFreeSlot_whenLargeBatchIsAhead() {
+        var batchExecutor = new BatchExecutor(1, 10, 60_000, deadlineScheduler);
+
+        batchExecutor.run(List.of("large-1", "large-2", "large-3"), this::call);
+        CompletableFuture<List<BatchItemResult<String>>> small = batchExecutor.run(List.of("small-1"), this::call);
+        calls.get("large-1").complete(BatchItemResult.ok("1"));
+
+        assertTrue(calls.containsKey("small-1"), "The small batch should take the freed slot before the rest of the large one");
+        assertFalse(calls.containsKey("large-2"));
+        calls.get("small-1").complete(BatchItemResult.ok("s"));
+        assertEquals("s", small.join().get(0).getData());
+        assertTrue(calls.containsKey("large-2"));
+    }
+
+    @Test
+    void run_failsItemsNotStarted_whenBatchDeadlinePasses() {
+        var batchExecutor = new BatchExecutor(1, 10, 60_000, deadlineScheduler);
+
+        CompletableFuture<List<BatchItemResult<String>>> results = batchExecutor.run(List.of("a", "b", "c"), this::call);
+        deadlines.get(0).run();
+        calls.get("a").complete(BatchItemResult.ok("A"));
+
+        List<BatchItemResult<String>> done = results.join();
+        assertEquals(200, done.get(0).getStatus());
+        assertEquals(503, done.get(1).getStatus());
+        assertEquals(503, done.get(2).getStatus());
+        assertEquals(1, calls.size(), "Items past the deadline should never be sent");
+    }
+
+    @Test
+    void run_rejectsEmptyAndOversizedBatches() {
+        var batchExecutor = new BatchExecutor(1, 2, 60_000, deadlineScheduler);
+
+        assertThrows(IllegalArgumentException.class, () -> batchExecutor.run(List.<String>of(), this::call));
+        assertThrows(IllegalArgumentException.class, () -> batchExecutor.run(List.of("a", "b", "c"), this::call));
+    }
+
+    private CompletableFuture<BatchItemResult<String>> call(String item) {
+        var result = new CompletableFuture<BatchItemResult<String>>();
+        calls.put(item, result);
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.CircuitBreaker;
+import com.example.rqchallenge.employees.EmployeeMetrics;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CircuitBreakerTest {
+
+    private static final Request request = Request.create(Request.HttpMethod.GET, "/employees/", Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+    private static final FeignException serverError = new FeignException.InternalServerError("Internal Server Error", request, null, Collections.emptyMap());
+    private static final long OPEN_MILLIS = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker(10, 4, 50, OPEN_MILLIS, 2, clock::get, new EmployeeMetrics(meterRegistry));
+    }
+
+    @Test
+    void opens_whenFailureRateReachesThreshold_afterMinimumCalls() {
+        record(serverError, serverError, null);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState(), "Three calls are below the minimum");
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(null);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.getRejectedCount());
+        assertEquals(OPEN_MILLIS, circuitBreaker.getRetryAfterMillis());
+        assertEquals(1.0, meterRegistry.get("employees.circuit.state").tag("state", "open").gauge().value());
+    }
+
+    @Test
+    void staysClosed_whenRemoteApiAnswersWithClientErrors() {
+        var notFound = new FeignException.NotFound("Not Found", request, null, Collections.emptyMap());
+
+        record(notFound, notFound, notFound, notFound, notFound);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    void closes_whenEveryTrialCallSucceeds_afterOpenPeriod() {
+        record(serverError, serverError, serverError, serverError);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission(), "Only two trial calls are let through");
+
+        circuitBreaker.onResult(null);
+        circuitBreaker.onResult(null);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, circuitBreaker.getFailureRate());
+        assertEquals(1.0, meterRegistry.get("employees.circuit.transitions").tag("state", "closed").counter().count());
+    }
+
+    @Test
+    void opensAgain_whenTrialCallFails() {
+        record(serverError, serverError, serverError, serverError);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(serverError);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(2.0, meterRegistry.get("employees.circuit.transitions").tag("state", "open").counter().count());
+    }
+
+    @Test
+    void releasePermission_letsAnotherTrialThrough_whenTrialWasNotSent() {
+        record(serverError, serverError, serverError, serverError);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS));
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.releasePermission();
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void record(FeignException... outcomes) {
+        for (FeignException outcome : outcomes) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onResult(outcome);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeColumns;
+
+public class EmployeeColumnsTest {
+
+    private static Employee employee1 = new Employee("1", "John Doe", 30, 50000);
+    private static Employee employee2 = new Employee("2", "Janel Doe", null, null);
+    private static Employee employee3 = new Employee("abc-3", null, 38, 100000);
+    private static Employee employee4 = new Employee("007", "Zo\u00eb \u00dcnal", 41, 0);
+
+    @Test
+    void of_materializesEveryEmployeeAsItWasGiven_includingMissingValuesAndNonNumericIds() {
+        List<Employee> employees = Arrays.asList(employee1, employee2, employee3, employee4);
+
+        EmployeeColumns columns = EmployeeColumns.of(employees);
+
+        assertEquals(employees, columns.asList());
+        assertNull(columns.salary(1));
+        assertNull(columns.name(2));
+    }
+
+    @Test
+    void rowOf_findsNumericAndNonNumericIds() {
+        EmployeeColumns columns = EmployeeColumns.of(Arrays.asList(employee1, employee2, employee3, employee4));
+
+        assertEquals(1, columns.rowOf("2"));
+        assertEquals(2, columns.rowOf("abc-3"));
+        assertEquals(3, columns.rowOf("007"));
+        assertEquals(-1, columns.rowOf("7"));
+        assertEquals(-1, columns.rowOf(null));
+    }
+
+    @Test
+    void withAppendedAndWithoutRow_returnNewStoresAndLeaveTheOriginalUntouched() {
+        EmployeeColumns original = EmployeeColumns.of(Arrays.asList(employee1, employee3));
+
+        EmployeeColumns appended = original.withAppended(employee2);
+        EmployeeColumns removed = appended.withoutRow(0);
+
+        assertEquals(Arrays.asList(employee1, employee3), original.asList());
+        assertEquals(Arrays.asList(employee1, employee3, employee2), appended.asList());
+        assertEquals(Arrays.asList(employee3, employee2), removed.asList());
+        assertEquals(-1, removed.rowOf("1"));
+        assertEquals(0, removed.rowOf("abc-3"));
+        assertEquals(1, removed.rowOf("2"));
+    }
+}
@@ -7,8 +7,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
@@ -16,9 +19,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.example.rqchallenge.employees.BatchItemResult;
+import com.example.rqchallenge.employees.CircuitOpenException;
+import com.example.rqchallenge.employees.CreateJob;
+import com.example.rqchallenge.employees.CreateQueueFullException;
 import com.example.rqchallenge.employees.Employee;
 import com.example.rqchallenge.employees.EmployeeController;
+import com.example.rqchallenge.employees.EmployeeCreateQueue;
+import com.example.rqchallenge.employees.EmployeePage;
 import com.example.rqchallenge.employees.EmployeeService;
+import com.example.rqchallenge.employees.EmployeeSortField;
+import com.example.rqchallenge.employees.EmployeeStatistics;
+import com.example.rqchallenge.employees.NameSearchMode;
+import com.example.rqchallenge.employees.ReadResult;
+import com.example.rqchallenge.employees.SortDirection;
+import com.example.rqchallenge.employees.ValueStatistics;
+import com.example.rqchallenge.employees.VersionedResult;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.DocumentContext;
@@ -27,12 +43,15 @@ import com.jayway.jsonpath.JsonPath;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(EmployeeController.class)
+@ActiveProfiles("test")
 class EmployeeControllerTest {
 
     @Autowired
@@ -41,6 +60,9 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService mockEmployeeService;
 
+    @MockBean
+    private EmployeeCreateQueue mockCreateQueue;
+
     @InjectMocks
     private EmployeeController employeeController;
 
@@ -52,9 +74,9 @@ class EmployeeControllerTest {
         List<Employee> mockEmployeesList = new ArrayList<>();
         mockEmployeesList.add(employee1);
 
-        when(mockEmployeeService.getAllEmployees()).thenReturn(mockEmployeesList);
+        when(mockEmployeeService.getAllEmployees()).thenReturn(versioned(mockEmployeesList));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/")
+        performAsync(MockMvcRequestBuilders.get("/")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
@@ -67,10 +89,115 @@ class EmployeeControllerTest {
 
     @Test
     void getAllEmployees_returns500_whenExceptionOccurs() throws Exception {
-        when(mockEmployeeService.getAllEmployees()).thenThrow(new RuntimeException());
+        when(mockEmployeeService.getAllEmployees()).thenReturn(CompletableFuture.failedFuture(new RuntimeException()));
+
+        performAsync(MockMvcRequestBuilders.get("/")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isInternalServerError());
+    }
+
+    @Test
+    void getAllEmployees_addsStaleHeaders_whenServedFromLastKnownGoodData() throws Exception {
+        when(mockEmployeeService.getAllEmployees())
+            .thenReturn(CompletableFuture.completedFuture(new VersionedResult<>(List.of(employee1), 1L, 45_000)));
+
+        performAsync(MockMvcRequestBuilders.get("/")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Age", "45"))
+                .andExpect(MockMvcResultMatchers.header().string("Warning", "110 - \"Response is Stale\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1));
+    }
+
+    @Test
+    void getAllEmployees_omitsStaleHeaders_whenDataIsFresh() throws Exception {
+        when(mockEmployeeService.getAllEmployees()).thenReturn(versioned(List.of(employee1)));
+
+        performAsync(MockMvcRequestBuilders.get("/")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Age", "Warning"));
+    }
+
+    @Test
+    void getAllEmployees_returns304_whenIfNoneMatchHasCurrentEtag() throws Exception {
+        when(mockEmployeeService.getAllEmployees()).thenReturn(versioned(List.of(employee1), 7L));
+
+        String etag = performAsync(MockMvcRequestBuilders.get("/")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/")
+        performAsync(MockMvcRequestBuilders.get("/")
+                .header("If-None-Match", etag)
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", etag))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    void getAllEmployees_returnsList_whenEtagIsOutdated() throws Exception {
+        when(mockEmployeeService.getAllEmployees())
+            .thenReturn(versioned(List.of(employee1), 7L), versioned(List.of(employee1), 8L));
+
+        String etag = performAsync(MockMvcRequestBuilders.get("/")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader("ETag");
+
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/")
+                .header("If-None-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                .andReturn();
+
+        assertTrue(!etag.equals(result.getResponse().getHeader("ETag")), "A new snapshot version should get a new tag");
+    }
+
+    @Test
+    void streamAllEmployeesAsNdjson_writesOneEmployeePerLine_whenNdjsonIsAccepted() throws Exception {
+        var employee2 = new Employee("2", "Janel Doe", 28, 150000);
+        when(mockEmployeeService.getAllEmployees()).thenReturn(versioned(List.of(employee1, employee2)));
+
+        MvcResult asyncResult = performAsync(MockMvcRequestBuilders.get("/")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = performAsync(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(employee1, objectMapper.readValue(lines[0], Employee.class));
+        assertEquals(employee2, objectMapper.readValue(lines[1], Employee.class));
+    }
+
+    @Test
+    void streamAllEmployeesAsJsonArray_writesJsonArray_whenStreamIsRequested() throws Exception {
+        when(mockEmployeeService.getAllEmployees()).thenReturn(versioned(List.of(employee1)));
+
+        MvcResult asyncResult = performAsync(MockMvcRequestBuilders.get("/")
+                .param("stream", "true"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        performAsync(MockMvcRequestBuilders.asyncDispatch(asyncResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].employee_name").value(employee1.getEmployeeName()));
+    }
+
+    @Test
+    void streamAllEmployeesAsNdjson_returns500_whenExceptionOccurs() throws Exception {
+        when(mockEmployeeService.getAllEmployees()).thenReturn(CompletableFuture.failedFuture(new RuntimeException()));
+
+        performAsync(MockMvcRequestBuilders.get("/")
+                .accept(MediaType.APPLICATION_NDJSON))
                 .andExpect(MockMvcResultMatchers.status().isInternalServerError());
     }
     // #endregion
@@ -82,9 +209,9 @@ class EmployeeControllerTest {
         List<Employee> mockEmployees = new ArrayList<>();
         mockEmployees.add(employee1);
 
-        when(mockEmployeeService.getEmployeesByNameSearch(searchString)).thenReturn(mockEmployees);
+        when(mockEmployeeService.getEmployeesByNameSearch(searchString, NameSearchMode.EXACT)).thenReturn(versioned(mockEmployees));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andReturn();
@@ -107,9 +234,9 @@ class EmployeeControllerTest {
         String searchString = "Janel";
         List<Employee> mockEmployees = new ArrayList<>();
 
-        when(mockEmployeeService.getEmployeesByNameSearch(searchString)).thenReturn(mockEmployees);
+        when(mockEmployeeService.getEmployeesByNameSearch(searchString, NameSearchMode.EXACT)).thenReturn(versioned(mockEmployees));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andReturn();
@@ -121,12 +248,33 @@ class EmployeeControllerTest {
         assertThat(documentContext.read("$.length()", Integer.class)).isZero();
     }
 
+    @Test
+    void getAllEmployeesByNameSearch_usesRequestedMode_whenModeIsPassed() throws Exception {
+        String searchString = "doe";
+        when(mockEmployeeService.getEmployeesByNameSearch(searchString, NameSearchMode.SUBSTRING)).thenReturn(versioned(List.of(employee1)));
+
+        performAsync(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
+                .param("mode", "substring")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(employee1.getId()));
+    }
+
+    @Test
+    void getAllEmployeesByNameSearch_returns422_whenModeIsNotSupported() throws Exception {
+        performAsync(MockMvcRequestBuilders.get("/search/{searchString}", "doe")
+                .param("mode", "fuzzy")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+
     @Test
     void getAllEmployeesByNameSearch_returns500_whenExceptionOccurs() throws Exception {
         String searchString = "Janel";
-        when(mockEmployeeService.getEmployeesByNameSearch(searchString)).thenThrow(new RuntimeException("Error occurred"));
+        when(mockEmployeeService.getEmployeesByNameSearch(searchString, NameSearchMode.EXACT)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error occurred")));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
+        performAsync(MockMvcRequestBuilders.get("/search/{searchString}", searchString)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isInternalServerError())
                 .andReturn();
@@ -136,9 +284,9 @@ class EmployeeControllerTest {
     // #region getEmployeeById
     @Test
     void getEmployeeById_returnsEmployee_whenSuccess() throws Exception {
-        when(mockEmployeeService.getEmployeeById(employee1.getId())).thenReturn(employee1);
+        when(mockEmployeeService.getEmployeeById(employee1.getId())).thenReturn(fresh(employee1));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/{id}", employee1.getId())
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/{id}", employee1.getId())
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn();
@@ -157,9 +305,9 @@ class EmployeeControllerTest {
 
     @Test
     void getEmployeeById_returns404_whenEmployeeNotFound() throws Exception {
-        when(mockEmployeeService.getEmployeeById("123")).thenReturn(null);
+        when(mockEmployeeService.getEmployeeById("123")).thenReturn(fresh(null));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/{id}", employee1.getId())
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/{id}", employee1.getId())
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(MockMvcResultMatchers.status().isNotFound())
             .andReturn();
@@ -168,11 +316,21 @@ class EmployeeControllerTest {
         assertTrue(content.isEmpty() || "[]".equals(content));
     }
 
+    @Test
+    void getEmployeeById_returns503WithRetryAfter_whenCircuitIsOpen() throws Exception {
+        when(mockEmployeeService.getEmployeeById("123")).thenReturn(CompletableFuture.failedFuture(new CircuitOpenException("getById was not sent", 1500)));
+
+        performAsync(MockMvcRequestBuilders.get("/{id}", "123")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"));
+    }
+
     @Test
     void getEmployeeById_returns500_whenExceptionOccurs() throws Exception {
-        when(mockEmployeeService.getEmployeeById("123")).thenThrow(new RuntimeException("Error occurred"));
+        when(mockEmployeeService.getEmployeeById("123")).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error occurred")));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/{id}", "123")
+        performAsync(MockMvcRequestBuilders.get("/{id}", "123")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isInternalServerError())
                 .andReturn();
@@ -183,9 +341,9 @@ class EmployeeControllerTest {
     @Test
     void getHighestSalaryOfEmployees_returnsIntegerHighestSalary_whenSuccess() throws Exception {
         Integer oneMillionDollars = 1000000;
-        when(mockEmployeeService.getHighestSalaryOfEmployees()).thenReturn(oneMillionDollars);
+        when(mockEmployeeService.getHighestSalaryOfEmployees()).thenReturn(versioned(oneMillionDollars));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/highestSalary")
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/highestSalary")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andReturn();
@@ -194,11 +352,23 @@ class EmployeeControllerTest {
         assertEquals(oneMillionDollars, actualHighestSalary, "Highest salary should match expecations");
     }
 
+    @Test
+    void getHighestSalaryOfEmployees_returns304_whenAnyListedEtagMatches() throws Exception {
+        when(mockEmployeeService.getHighestSalaryOfEmployees()).thenReturn(versioned(1000000, 3L));
+
+        String etag = performAsync(MockMvcRequestBuilders.get("/highestSalary"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        performAsync(MockMvcRequestBuilders.get("/highestSalary")
+            .header("If-None-Match", "\"outdated\", W/" + etag))
+            .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
     @Test
     void getHighestSalaryOfEmployees_returns500_whenExceptionOccurs() throws Exception {
-        when(mockEmployeeService.getHighestSalaryOfEmployees()).thenThrow(new RuntimeException("Error occurred"));
+        when(mockEmployeeService.getHighestSalaryOfEmployees()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error occurred")));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/highestSalary")
+        performAsync(MockMvcRequestBuilders.get("/highestSalary")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(MockMvcResultMatchers.status().isInternalServerError())
             .andReturn();
@@ -214,9 +384,9 @@ class EmployeeControllerTest {
                 "Thor Odinson", "Carol Danvers", "T'Challa"
         );
 
-        when(mockEmployeeService.getTopTenHighestEarningEmployeeNames()).thenReturn(expectedHighestEarnersList);
+        when(mockEmployeeService.getTopTenHighestEarningEmployeeNames()).thenReturn(versioned(expectedHighestEarnersList));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/topTenHighestEarningEmployeeNames")
+        MvcResult result = performAsync(MockMvcRequestBuilders.get("/topTenHighestEarningEmployeeNames")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andReturn();
@@ -233,17 +403,137 @@ class EmployeeControllerTest {
     }
 
 
+    @Test
+    void getTopTenHighestEarningEmployeeNames_returns304WithStaleHeaders_whenEtagMatchesStaleData() throws Exception {
+        when(mockEmployeeService.getTopTenHighestEarningEmployeeNames())
+            .thenReturn(CompletableFuture.completedFuture(new VersionedResult<>(List.of(employee1.getEmployeeName()), 5L, 45_000)));
+
+        String etag = performAsync(MockMvcRequestBuilders.get("/topTenHighestEarningEmployeeNames"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        performAsync(MockMvcRequestBuilders.get("/topTenHighestEarningEmployeeNames")
+            .header("If-None-Match", etag))
+            .andExpect(MockMvcResultMatchers.status().isNotModified())
+            .andExpect(MockMvcResultMatchers.header().string("Age", "45"));
+    }
+
     @Test
     void getTopTenHighestEarningEmployeeNames_returns500_whenExceptionOccurs() throws Exception {
-        when(mockEmployeeService.getTopTenHighestEarningEmployeeNames()).thenThrow(new RuntimeException("Error occurred"));
+        when(mockEmployeeService.getTopTenHighestEarningEmployeeNames()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error occurred")));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/topTenHighestEarningEmployeeNames")
+        performAsync(MockMvcRequestBuilders.get("/topTenHighestEarningEmployeeNames")
             .contentType(MediaType.APPLICATION_JSON))
             .andExpect(MockMvcResultMatchers.status().isInternalServerError())
             .andReturn();
     }
     // #endregion
 
+    // #region getStatistics
+    @Test
+    void getStatistics_returnsSnakeCaseStatisticsWithEtag() throws Exception {
+        List<Employee> employees = List.of(employee1, new Employee("2", "Janel Doe", 28, 150000));
+        EmployeeStatistics statistics = new EmployeeStatistics(2,
+            ValueStatistics.of(2, position -> employees.get(position).getEmployeeSalary()),
+            ValueStatistics.of(2, position -> employees.get(1 - position).getEmployeeAge()));
+        when(mockEmployeeService.getStatistics()).thenReturn(versioned(statistics));
+
+        String etag = performAsync(MockMvcRequestBuilders.get("/statistics"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.count").value(2))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.salary.p50").value(50000))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.salary.mean").value(100000.0))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.age.min").value(28))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.age.histogram[0].from").value(28))
+            .andReturn().getResponse().getHeader("ETag");
+
+        performAsync(MockMvcRequestBuilders.get("/statistics").header("If-None-Match", etag))
+            .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    void getStatistics_returns500_whenExceptionOccurs() throws Exception {
+        when(mockEmployeeService.getStatistics()).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error occurred")));
+
+        performAsync(MockMvcRequestBuilders.get("/statistics"))
+            .andExpect(MockMvcResultMatchers.status().isInternalServerError());
+    }
+    // #endregion
+
+    // #region getEmployeesPage
+    @Test
+    void getEmployeesPage_returnsPage_whenSuccess() throws Exception {
+        when(mockEmployeeService.getEmployeesPage(1, null, EmployeeSortField.SALARY, SortDirection.DESC))
+            .thenReturn(versioned(new EmployeePage(List.of(employee1), "next", "salary", "desc", 1)));
+
+        performAsync(MockMvcRequestBuilders.get("/")
+                .param("limit", "1")
+                .param("sort", "salary")
+                .param("direction", "desc")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees.size()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.employees[0].id").value(employee1.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").value("next"));
+    }
+
+    @Test
+    void getEmployeesPage_returns422_whenSortIsUnknown() throws Exception {
+        performAsync(MockMvcRequestBuilders.get("/")
+                .param("limit", "1")
+                .param("sort", "shoeSize")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+    // #endregion
+
+    // #region getTopEmployees
+    @Test
+    void getTopEmployees_returnsRankedEmployees_whenSuccess() throws Exception {
+        when(mockEmployeeService.getTopEmployees(50, EmployeeSortField.AGE, SortDirection.ASC, "doe")).thenReturn(versioned(List.of(employee1)));
+
+        performAsync(MockMvcRequestBuilders.get("/top")
+                .param("k", "50")
+                .param("field", "age")
+                .param("direction", "asc")
+                .param("name", "doe"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(employee1.getId()));
+    }
+
+    @Test
+    void getTopEmployees_returns422_whenFieldIsUnknown() throws Exception {
+        performAsync(MockMvcRequestBuilders.get("/top")
+                .param("field", "height"))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+    // #endregion
+
+    // #region getEmployeesBySalaryRange
+    @Test
+    void getEmployeesBySalaryRange_returnsList_whenSuccess() throws Exception {
+        when(mockEmployeeService.getEmployeesBySalaryRange(40000, 60000)).thenReturn(versioned(List.of(employee1)));
+
+        performAsync(MockMvcRequestBuilders.get("/salaryRange")
+                .param("min", "40000")
+                .param("max", "60000")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(employee1.getId()));
+    }
+
+    @Test
+    void getEmployeesBySalaryRange_returns422_whenIllegalArgumentExceptionOccurs() throws Exception {
+        when(mockEmployeeService.getEmployeesBySalaryRange(60000, 40000)).thenThrow(new IllegalArgumentException("Bad range"));
+
+        performAsync(MockMvcRequestBuilders.get("/salaryRange")
+                .param("min", "60000")
+                .param("max", "40000")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+    // #endregion
+
 
     // #region createEmployee
     @Test
@@ -253,9 +543,9 @@ class EmployeeControllerTest {
         employeeInput.put("employee_age", employee1.getEmployeeAge());
         employeeInput.put("employee_salary", employee1.getEmployeeSalary());
 
-        when(mockEmployeeService.createEmployee(employeeInput)).thenReturn(employee1);
+        when(mockEmployeeService.createEmployee(employeeInput)).thenReturn(CompletableFuture.completedFuture(employee1));
 
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/")
+        MvcResult result = performAsync(MockMvcRequestBuilders.post("/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(new ObjectMapper().writeValueAsString(employeeInput)))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -270,7 +560,7 @@ class EmployeeControllerTest {
     void createEmployee_returns422_whenIllegalArgumentExceptionOccurs() throws Exception {
         when(mockEmployeeService.createEmployee(Mockito.anyMap())).thenThrow(new IllegalArgumentException("Bad Data input"));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/")
+        performAsync(MockMvcRequestBuilders.post("/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(new ObjectMapper().writeValueAsString(Mockito.anyMap())))
             .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity())
@@ -279,22 +569,123 @@ class EmployeeControllerTest {
 
     @Test
     void createEmployee_returns500_whenNonIllegalArgumentExceptionOccurs() throws Exception {
-        when(mockEmployeeService.createEmployee(Mockito.anyMap())).thenThrow(new RuntimeException("Mock Error occurred"));
+        when(mockEmployeeService.createEmployee(Mockito.anyMap())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Mock Error occurred")));
 
-        mockMvc.perform(MockMvcRequestBuilders.post("/")
+        performAsync(MockMvcRequestBuilders.post("/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(new ObjectMapper().writeValueAsString(Mockito.anyMap())))
             .andExpect(MockMvcResultMatchers.status().isInternalServerError())
             .andReturn();
     }
+
+    @Test
+    void createEmployee_returns202WithJob_whenCreateQueueIsEnabled() throws Exception {
+        Map<String, Object> employeeInput = Map.of("employee_name", employee1.getEmployeeName());
+        when(mockCreateQueue.isEnabled()).thenReturn(true);
+        when(mockCreateQueue.submit(employeeInput)).thenReturn(CreateJob.queued("job-1", 1000));
+
+        performAsync(MockMvcRequestBuilders.post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(employeeInput)))
+            .andExpect(MockMvcResultMatchers.status().isAccepted())
+            .andExpect(MockMvcResultMatchers.header().string("Location", "/jobs/job-1"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.id").value("job-1"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("QUEUED"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.employee_id").doesNotExist());
+
+        Mockito.verify(mockEmployeeService, Mockito.never()).createEmployee(Mockito.anyMap());
+    }
+
+    @Test
+    void createEmployee_returns503_whenCreateQueueIsFull() throws Exception {
+        when(mockCreateQueue.isEnabled()).thenReturn(true);
+        when(mockCreateQueue.submit(Mockito.anyMap())).thenThrow(new CreateQueueFullException("full"));
+
+        performAsync(MockMvcRequestBuilders.post("/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"employee_name\":\"John Doe\"}"))
+            .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+            .andExpect(MockMvcResultMatchers.header().doesNotExist("Retry-After"));
+    }
+
+    @Test
+    void getCreateJob_returnsJob_or404() throws Exception {
+        when(mockCreateQueue.getJob("job-1")).thenReturn(CreateJob.queued("job-1", 1000).succeeded("42", 2000));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/jobs/job-1"))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("SUCCEEDED"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.status_code").value(200))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.employee_id").value("42"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/jobs/unknown"))
+            .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+    // #endregion
+
+    // #region batch get and delete
+    @Test
+    void getEmployeesByIds_returnsResultPerId_whenSuccess() throws Exception {
+        Map<String, BatchItemResult<Employee>> results = new LinkedHashMap<>();
+        results.put("1", BatchItemResult.ok(employee1));
+        results.put("9", BatchItemResult.failed(404, "Employee not found"));
+        when(mockEmployeeService.getEmployeesByIds(List.of("1", "9"))).thenReturn(fresh(results));
+
+        performAsync(MockMvcRequestBuilders.post("/batch/get")
+                .content("[\"1\", \"9\"]")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$['1'].data.id").value(employee1.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$['9'].status").value(404));
+    }
+
+    @Test
+    void deleteEmployeesByIds_returns422_whenIdsAreRejected() throws Exception {
+        when(mockEmployeeService.deleteEmployeesByIds(List.of(" "))).thenThrow(new IllegalArgumentException("Blank id"));
+
+        performAsync(MockMvcRequestBuilders.post("/batch/delete")
+                .content("[\" \"]")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
+    // #endregion
+
+    // #region createEmployees
+    @Test
+    void createEmployees_returnsResultPerItem_whenSuccess() throws Exception {
+        Map<String, Object> employeeInput = new HashMap<>();
+        employeeInput.put("employee_name", employee1.getEmployeeName());
+        List<Map<String, Object>> employeeInputs = List.of(employeeInput, new HashMap<>());
+
+        when(mockEmployeeService.createEmployees(employeeInputs))
+            .thenReturn(CompletableFuture.completedFuture(List.of(BatchItemResult.ok(employee1), BatchItemResult.failed(422, "employee_name must be a non-empty string"))));
+
+        performAsync(MockMvcRequestBuilders.post("/batch/create")
+                .content(new ObjectMapper().writeValueAsString(employeeInputs))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value(200))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].data.id").value(employee1.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value(422));
+    }
+
+    @Test
+    void createEmployees_returns422_whenBatchIsRejected() throws Exception {
+        when(mockEmployeeService.createEmployees(List.of())).thenThrow(new IllegalArgumentException("Empty batch"));
+
+        performAsync(MockMvcRequestBuilders.post("/batch/create")
+                .content("[]")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+    }
     // #endregion
 
     // #region deleteEmployeeById
      @Test
      void deleteEmployeeById_returnsEmployee_whenSuccess() throws Exception {
-         when(mockEmployeeService.deleteEmployeeById(employee1.getId())).thenReturn(employee1.getId());
+         when(mockEmployeeService.deleteEmployeeById(employee1.getId())).thenReturn(CompletableFuture.completedFuture(employee1.getId()));
  
-         MvcResult result = mockMvc.perform(MockMvcRequestBuilders.delete("/{id}", employee1.getId())
+         MvcResult result = performAsync(MockMvcRequestBuilders.delete("/{id}", employee1.getId())
              .contentType(MediaType.APPLICATION_JSON))
              .andExpect(MockMvcResultMatchers.status().isOk())
              .andReturn();
@@ -304,15 +695,46 @@ class EmployeeControllerTest {
          assertThat(content).isNotNull().isEqualTo(employee1.getId());
      }
  
+     @Test
+     void deleteEmployeeById_returns503_whenCircuitIsOpen() throws Exception {
+         when(mockEmployeeService.deleteEmployeeById("123")).thenReturn(CompletableFuture.failedFuture(new CircuitOpenException("delete was not sent", 10_000)));
+ 
+         performAsync(MockMvcRequestBuilders.delete("/{id}", "123")
+                 .contentType(MediaType.APPLICATION_JSON))
+                 .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                 .andExpect(MockMvcResultMatchers.header().string("Retry-After", "10"));
+     }
+ 
      @Test
      void deleteEmployeeById_returns500_whenExceptionOccurs() throws Exception {
-         when(mockEmployeeService.deleteEmployeeById("123")).thenThrow(new RuntimeException("Error occurred"));
+         when(mockEmployeeService.deleteEmployeeById("123")).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error occurred")));
  
-         mockMvc.perform(MockMvcRequestBuilders.delete("/{id}", "123")
+         performAsync(MockMvcRequestBuilders.delete("/{id}", "123")
                  .contentType(MediaType.APPLICATION_JSON))
                  .andExpect(MockMvcResultMatchers.status().isInternalServerError())
                  .andReturn();
      }
     // #endregion
-}
 
+    /**
+     * The endpoints answer with a CompletableFuture, so the response is only written once the request is dispatched again.
+     */
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started));
+    }
+
+    private static <T> CompletableFuture<ReadResult<T>> fresh(T value) {
+        return CompletableFuture.completedFuture(ReadResult.fresh(value));
+    }
+
+    private static <T> CompletableFuture<VersionedResult<T>> versioned(T value) {
+        return versioned(value, 1L);
+    }
+
+    private static <T> CompletableFuture<VersionedResult<T>> versioned(T value, long version) {
+        return CompletableFuture.completedFuture(new VersionedResult<>(value, version, -1));
+    }
+}
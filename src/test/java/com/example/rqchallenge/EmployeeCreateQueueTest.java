@@ -0,0 +1,259 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.rqchallenge.employees.CircuitOpenException;
+import com.example.rqchallenge.employees.CreateJob;
+import com.example.rqchallenge.employees.CreateJobJournal;
+import com.example.rqchallenge.employees.CreateJobStatus;
+import com.example.rqchallenge.employees.CreateQueueFullException;
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeCreateQueue;
+import com.example.rqchallenge.employees.EmployeeService;
+import com.example.rqchallenge.employees.RateLimitExceededException;
+import com.example.rqchallenge.employees.RetryDeadlineExceededException;
+import com.example.rqchallenge.employees.UpstreamUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeCreateQueueTest {
+
+    private static final Map<String, Object> input1 = Map.of("employee_name", "John Doe", "employee_salary", 50000);
+    private static final Map<String, Object> input2 = Map.of("employee_name", "Janel Doe");
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong wallClock = new AtomicLong(1_000_000);
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+    private final AtomicReference<String> finishing = new AtomicReference<>();
+
+    @Test
+    void submit_queuesJobWithoutCallingRemoteApi_andWorkerRecordsCreatedEmployee() {
+        EmployeeCreateQueue queue = queue(10, 3, 10);
+        when(employeeService.createEmployee(input1)).thenReturn(CompletableFuture.completedFuture(new Employee("42", "John Doe", null, 50000)));
+
+        CreateJob job = queue.submit(input1);
+
+        assertEquals(CreateJobStatus.QUEUED, job.getStatus());
+        assertEquals(1, queue.getQueuedJobs());
+        verify(employeeService, never()).createEmployee(Mockito.anyMap());
+
+        runPendingTasks();
+
+        CreateJob finished = queue.getJob(job.getId());
+        assertEquals(CreateJobStatus.SUCCEEDED, finished.getStatus());
+        assertEquals(200, finished.getStatusCode());
+        assertEquals("42", finished.getEmployeeId());
+        assertEquals(0, queue.getQueuedJobs());
+        assertNull(queue.getJob("unknown"));
+    }
+
+    @Test
+    void run_retriesWhileCreateIsRefusedBeforeBeingSent_thenFailsWith503() {
+        EmployeeCreateQueue queue = queue(10, 3, 10);
+        when(employeeService.createEmployee(input1)).thenReturn(CompletableFuture.failedFuture(new RateLimitExceededException("rate limited")));
+
+        CreateJob job = queue.submit(input1);
+        runPendingTasks();
+
+        CreateJob finished = queue.getJob(job.getId());
+        assertEquals(CreateJobStatus.FAILED, finished.getStatus());
+        assertEquals(503, finished.getStatusCode());
+        assertEquals("rate limited", finished.getError());
+        verify(employeeService, times(3)).createEmployee(input1);
+    }
+
+    @Test
+    void run_sendsAgain_whenCircuitWasOpen() {
+        EmployeeCreateQueue queue = queue(10, 3, 10);
+        when(employeeService.createEmployee(input1))
+            .thenReturn(CompletableFuture.failedFuture(new CircuitOpenException("create was not sent", 1000)))
+            .thenReturn(CompletableFuture.completedFuture(new Employee("42", "John Doe", null, 50000)));
+
+        CreateJob job = queue.submit(input1);
+        runPendingTasks();
+
+        assertEquals(CreateJobStatus.SUCCEEDED, queue.getJob(job.getId()).getStatus());
+        verify(employeeService, times(2)).createEmployee(input1);
+    }
+
+    @Test
+    void run_neverSendsAgain_whenCreateMayHaveReachedRemoteApi() {
+        EmployeeCreateQueue queue = queue(10, 3, 10);
+        when(employeeService.createEmployee(input1)).thenReturn(CompletableFuture.failedFuture(new RetryDeadlineExceededException("create did not complete within 10000ms")));
+
+        CreateJob job = queue.submit(input1);
+        runPendingTasks();
+
+        CreateJob finished = queue.getJob(job.getId());
+        assertEquals(CreateJobStatus.UNKNOWN, finished.getStatus());
+        assertEquals(504, finished.getStatusCode());
+        verify(employeeService, times(1)).createEmployee(input1);
+    }
+
+    @Test
+    void run_failsWithoutSendingAgain_whenRemoteApiThrottledTheCreate() {
+        EmployeeCreateQueue queue = queue(10, 3, 10);
+        when(employeeService.createEmployee(input1)).thenReturn(CompletableFuture.failedFuture(new UpstreamUnavailableException("create was throttled by the remote api")));
+
+        CreateJob job = queue.submit(input1);
+        runPendingTasks();
+
+        assertEquals(CreateJobStatus.FAILED, queue.getJob(job.getId()).getStatus());
+        assertEquals(503, queue.getJob(job.getId()).getStatusCode());
+        verify(employeeService, times(1)).createEmployee(input1);
+    }
+
+    @Test
+    void submit_throwsCreateQueueFull_whenCapacityJobsAreWaiting() {
+        EmployeeCreateQueue queue = queue(1, 3, 10);
+        when(employeeService.createEmployee(input1)).thenReturn(CompletableFuture.completedFuture(new Employee("42", "John Doe", null, 50000)));
+
+        queue.submit(input1);
+        assertThrows(CreateQueueFullException.class, () -> queue.submit(input2));
+
+        runPendingTasks();
+        queue.submit(input2);
+        assertEquals(1, queue.getQueuedJobs());
+    }
+
+    @Test
+    void restore_resendsJobsPendingBeforeRestart_andKeepsFinishedOnes() throws IOException {
+        EmployeeCreateQueue before = queue(10, 3, 10);
+        when(employeeService.createEmployee(input1)).thenReturn(CompletableFuture.completedFuture(new Employee("42", "John Doe", null, 50000)));
+        when(employeeService.createEmployee(input2)).thenReturn(CompletableFuture.completedFuture(new Employee("43", "Janel Doe", null, null)));
+        CreateJob finishedJob = before.submit(input1);
+        runPendingTasks();
+        CreateJob pendingJob = before.submit(input2);
+        pendingTasks.clear();
+        before.shutdown();
+        // The tail of a line a crash cut short
+        Files.write(journalPath(), "{\"job\":{\"id\":\"torn".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        EmployeeCreateQueue after = queue(10, 3, 10);
+        after.restore();
+
+        assertEquals("42", after.getJob(finishedJob.getId()).getEmployeeId());
+        assertEquals(CreateJobStatus.QUEUED, after.getJob(pendingJob.getId()).getStatus());
+        assertEquals(1, pendingTasks.size());
+        assertTrue(Files.readAllLines(journalPath()).stream().noneMatch(line -> line.contains("torn")));
+
+        runPendingTasks();
+
+        assertEquals("43", after.getJob(pendingJob.getId()).getEmployeeId());
+        verify(employeeService, times(1)).createEmployee(input1);
+        verify(employeeService, times(1)).createEmployee(input2);
+    }
+
+    @Test
+    void run_forgetsOldestFinishedJobs_pastRetainedJobs() {
+        EmployeeCreateQueue queue = queue(10, 3, 1);
+        when(employeeService.createEmployee(Mockito.anyMap())).thenReturn(CompletableFuture.completedFuture(new Employee("42", "John Doe", null, 50000)));
+
+        CreateJob first = queue.submit(input1);
+        CreateJob second = queue.submit(input2);
+        runPendingTasks();
+
+        assertNull(queue.getJob(first.getId()));
+        assertEquals(CreateJobStatus.SUCCEEDED, queue.getJob(second.getId()).getStatus());
+    }
+
+    @Test
+    void restore_doesNotResendJob_whenLogWasCompactedWhileItFinished() {
+        when(employeeService.createEmployee(Mockito.anyMap())).thenReturn(CompletableFuture.completedFuture(new Employee("42", "John Doe", null, 50000)));
+        // The log compacts once it holds more than 2 * (capacity + retainedJobs) = 8 lines
+        EmployeeCreateQueue before = queue(new CreateJobJournal(journalPath(), objectMapper) {
+            @Override
+            public synchronized void appendFinished(CreateJob job) {
+                // Another worker finishes its job, and compacts the log, just as this one is recording its own
+                if (job.getId().equals(finishing.get()) && !pendingTasks.isEmpty()) {
+                    runPendingTasks();
+                }
+                super.appendFinished(job);
+            }
+        }, 2, 3, 2);
+        for (int i = 0; i < 3; i++) {
+            before.submit(input1);
+            runPendingTasks();
+        }
+
+        CreateJob job = before.submit(input1);
+        finishing.set(job.getId());
+        List<Runnable> finishingTask = new ArrayList<>(pendingTasks);
+        pendingTasks.clear();
+        CreateJob other = before.submit(input2);
+        finishingTask.forEach(Runnable::run);
+        before.shutdown();
+
+        EmployeeCreateQueue after = queue(10, 3, 10);
+        after.restore();
+
+        assertTrue(pendingTasks.isEmpty(), "No job should be sent again after the restart");
+        assertEquals(0, after.getQueuedJobs());
+        assertEquals(CreateJobStatus.SUCCEEDED, after.getJob(job.getId()).getStatus());
+        assertEquals(CreateJobStatus.SUCCEEDED, after.getJob(other.getId()).getStatus());
+        verify(employeeService, times(5)).createEmployee(Mockito.anyMap());
+    }
+
+    @Test
+    void rewrite_recordsJobAsFinished_whenItIsBothPendingAndFinished() {
+        CreateJobJournal journal = new CreateJobJournal(journalPath(), objectMapper);
+        CreateJob queued = CreateJob.queued("1", wallClock.get());
+
+        journal.rewrite(List.of(new CreateJobJournal.Entry(queued, input1)), List.of(queued.succeeded("42", wallClock.get())));
+        CreateJobJournal.Replay replay = journal.read();
+        journal.close();
+
+        assertTrue(replay.getPending().isEmpty());
+        assertEquals("42", replay.getFinished().get(0).getEmployeeId());
+    }
+
+    private EmployeeCreateQueue queue(int capacity, int maxAttempts, int retainedJobs) {
+        return queue(new CreateJobJournal(journalPath(), objectMapper), capacity, maxAttempts, retainedJobs);
+    }
+
+    private EmployeeCreateQueue queue(CreateJobJournal journal, int capacity, int maxAttempts, int retainedJobs) {
+        return new EmployeeCreateQueue(employeeService, journal, true, capacity, maxAttempts, 0, retainedJobs, pendingTasks::add, wallClock::get);
+    }
+
+    private Path journalPath() {
+        return directory.resolve("create-jobs.log");
+    }
+
+    private void runPendingTasks() {
+        List<Runnable> tasks = new ArrayList<>(pendingTasks);
+        pendingTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+}
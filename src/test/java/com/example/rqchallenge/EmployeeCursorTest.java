@@ -0,0 +1,53 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeCursor;
+import com.example.rqchallenge.employees.EmployeeSortField;
+import com.example.rqchallenge.employees.SortDirection;
+
+public class EmployeeCursorTest {
+
+    @Test
+    void decode_returnsTheSamePosition_whenIdAndValueHoldTheSeparator() {
+        var employee = new Employee("emp\n7", "Jane =3:\nDoe", 30, 50000);
+
+        EmployeeCursor decoded = EmployeeCursor.decode(EmployeeCursor.after(employee, EmployeeSortField.NAME, SortDirection.DESC).encode());
+        Employee probe = decoded.toProbe();
+
+        assertEquals(EmployeeSortField.NAME, decoded.getSortField());
+        assertEquals(SortDirection.DESC, decoded.getDirection());
+        assertEquals("emp\n7", probe.getId());
+        assertEquals("Jane =3:\nDoe", probe.getEmployeeName());
+    }
+
+    @Test
+    void decode_keepsMissingValue() {
+        var employee = new Employee("7", "Jane Doe", null, 50000);
+
+        Employee probe = EmployeeCursor.decode(EmployeeCursor.after(employee, EmployeeSortField.AGE, SortDirection.ASC).encode()).toProbe();
+
+        assertEquals("7", probe.getId());
+        assertNull(probe.getEmployeeAge());
+    }
+
+    @Test
+    void decode_throwsIllegalArgumentException_whenCursorIsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> EmployeeCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> EmployeeCursor.decode(encodeRaw("ID\nASC\n=9:7-")));
+        assertThrows(IllegalArgumentException.class, () -> EmployeeCursor.decode(encodeRaw("ID\nASC\n=1:7-extra")));
+        assertThrows(IllegalArgumentException.class, () -> EmployeeCursor.decode(encodeRaw("ID\nASC\n=2147483647:7-")));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.EmployeeResponseDecoder;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.Request;
+import feign.Response;
+
+public class EmployeeResponseDecoderTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final Request request = Request.create(Request.HttpMethod.GET, "/employees/", Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+
+    private final EmployeeResponseDecoder decoder = new EmployeeResponseDecoder(objectMapper);
+
+    @Test
+    void decode_readsFindAllResponse_likeDatabind() throws Exception {
+        String body = "{\"status\":\"success\",\"data\":["
+            + "{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},"
+            + "{\"id\":\"2\",\"employee_name\":null,\"employee_salary\":\"170750\",\"employee_age\":\"\",\"extra\":{\"nested\":[1,{\"x\":2}]}},"
+            + "{\"id\":3,\"employee_salary\":86000.9}"
+            + "],\"message\":\"Successfully! All records has been fetched.\"}";
+
+        @SuppressWarnings("unchecked")
+        var decoded = (BaseRemoteDto<List<Employee>>) decoder.decode(response(body), returnTypeOf("findAll"));
+
+        assertEquals("success", decoded.getStatus());
+        assertEquals("Successfully! All records has been fetched.", decoded.getMessage());
+        assertEquals(Arrays.asList(
+            new Employee("1", "Tiger Nixon", 61, 320800),
+            new Employee("2", null, null, 170750),
+            new Employee("3", null, null, 86000)), decoded.getData());
+        assertEquals(decodeWithDatabind(body, returnTypeOf("findAll")).getData(), decoded.getData());
+    }
+
+    @Test
+    void decode_readsGetByIdResponse_andNullData() throws Exception {
+        String found = "{\"status\":\"success\",\"data\":{\"id\":7,\"employee_name\":\"Zo\u00eb\",\"employee_salary\":5,\"employee_age\":60,\"profile_image\":\"\"}}";
+        String missing = "{\"status\":\"success\",\"data\":null,\"message\":\"Successfully! Record has been fetched.\"}";
+
+        assertEquals(new Employee("7", "Zo\u00eb", 60, 5), ((BaseRemoteDto<?>) decoder.decode(response(found), returnTypeOf("getById"))).getData());
+        assertNull(((BaseRemoteDto<?>) decoder.decode(response(missing), returnTypeOf("getById"))).getData());
+    }
+
+    @Test
+    void decode_leavesOtherResponseTypesToTheObjectMapper() throws Exception {
+        String body = "{\"status\":\"success\",\"data\":{\"name\":\"test\",\"salary\":\"123\",\"age\":\"23\",\"id\":25}}";
+
+        var decoded = (BaseRemoteDto<?>) decoder.decode(response(body), returnTypeOf("create"));
+
+        assertEquals("25", ((CreatedEmployee) decoded.getData()).getId());
+    }
+
+    @Test
+    void decodeEmployees_throwsIOException_whenAFieldHasTheWrongShape() {
+        assertThrows(IOException.class, () -> decoder.decodeEmployees(stream("{\"data\":[{\"employee_age\":\"sixty\"}]}")));
+        assertThrows(IOException.class, () -> decoder.decodeEmployees(stream("{\"data\":[{\"employee_salary\":[1]}]}")));
+        assertThrows(IOException.class, () -> decoder.decodeEmployees(stream("{\"data\":{\"id\":1}}")));
+    }
+
+    private static Response response(String body) {
+        return Response.builder().status(200).reason("OK").request(request).headers(Map.of()).body(body.getBytes(StandardCharsets.UTF_8)).build();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Type returnTypeOf(String method) {
+        return Arrays.stream(EmployeeClient.class.getMethods())
+            .filter(candidate -> candidate.getName().equals(method))
+            .findFirst().orElseThrow()
+            .getGenericReturnType();
+    }
+
+    private static BaseRemoteDto<?> decodeWithDatabind(String body, Type type) throws IOException {
+        return objectMapper.readValue(body, objectMapper.constructType(type));
+    }
+}
@@ -6,41 +6,85 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
-import org.mockito.InjectMocks;
 
+import com.example.rqchallenge.employees.BatchExecutor;
+import com.example.rqchallenge.employees.BatchItemResult;
+import com.example.rqchallenge.employees.CircuitOpenException;
 import com.example.rqchallenge.employees.Employee;
 import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.EmployeeMetrics;
+import com.example.rqchallenge.employees.EmployeePage;
 import com.example.rqchallenge.employees.EmployeeService;
+import com.example.rqchallenge.employees.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.EmployeeSortField;
+import com.example.rqchallenge.employees.EmployeeStatistics;
+import com.example.rqchallenge.employees.Futures;
+import com.example.rqchallenge.employees.NameSearchMode;
+import com.example.rqchallenge.employees.SortDirection;
+import com.example.rqchallenge.employees.UpstreamUnavailableException;
+import com.example.rqchallenge.employees.ValueStatistics;
+import com.example.rqchallenge.employees.VersionedResult;
 import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
 import com.example.rqchallenge.employees.remoteDtos.CreatedEmployee;
 
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTest {
 
-    @Mock
+    // The async variants call the stubbed blocking methods
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private EmployeeClient employeeClient;
 
-    @InjectMocks
     private EmployeeService employeeService;
+    private BatchExecutor batchExecutor;
+    private SimpleMeterRegistry meterRegistry;
 
     private static Employee employee1 = new Employee("1", "John Doe", 30, 50000);
     private static Employee employee2 = new Employee("2", "Janel Doe", 28, 150000);
     private static Employee employee3 = new Employee("3", "Janel Doe", 38, 100000);
 
+    @BeforeEach
+    void setUp() {
+        var snapshotCache = new EmployeeSnapshotCache(employeeClient, 30000, Runnable::run, System::nanoTime);
+        batchExecutor = new BatchExecutor(4, 4, 60_000);
+        meterRegistry = new SimpleMeterRegistry();
+        employeeService = new EmployeeService(employeeClient, snapshotCache, batchExecutor, new EmployeeMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchExecutor.shutdown();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        return Futures.join(future);
+    }
+
     // #region getAllEmployees
     @Test
     void getAllEmployees_returnsList_whenSuccess() throws Exception {
@@ -49,16 +93,105 @@ public class EmployeeServiceTest {
         employeesDto.setData(expectedEmployees);
         when(employeeClient.findAll()).thenReturn(employeesDto);
 
-        List<Employee> actualEmployees = employeeService.getAllEmployees();
+        List<Employee> actualEmployees = await(employeeService.getAllEmployees()).getValue();
 
         assertEquals(expectedEmployees, actualEmployees);       
     }
 
+    @Test
+    void getAllEmployees_callsRemoteApiOnce_whenCalledRepeatedly() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        await(employeeService.getAllEmployees());
+        await(employeeService.getHighestSalaryOfEmployees());
+        await(employeeService.getTopTenHighestEarningEmployeeNames());
+
+        Mockito.verify(employeeClient, Mockito.times(1)).findAll();
+    }
+
+    @Test
+    void getAllEmployees_keepsServingLastKnownGoodData_whenRefreshFails() throws Exception {
+        var clock = new AtomicLong();
+        var staleService = new EmployeeService(employeeClient, new EmployeeSnapshotCache(employeeClient, 1000, Runnable::run, clock::get), batchExecutor,
+            new EmployeeMetrics(meterRegistry));
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto).thenThrow(new CircuitOpenException("findAll was not sent", 1000));
+        await(staleService.getAllEmployees());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertEquals(Arrays.asList(employee1, employee2), await(staleService.getAllEmployees()).getValue());
+        assertEquals(1.0, meterRegistry.get("employees.stale.fallbacks").tag("operation", "findAll").counter().count());
+    }
+
     @Test
     void getAllEmployees_throwsException_whenServiceThrows() throws Exception {
         when(employeeClient.findAll()).thenThrow(RuntimeException.class);
 
-        assertThrows(RuntimeException.class, () -> employeeService.getAllEmployees());
+        assertThrows(RuntimeException.class, () -> await(employeeService.getAllEmployees()));
+    }
+    // #endregion
+
+    // #region getEmployeesPage
+    @Test
+    void getEmployeesPage_walksAllPagesInOrder_whenFollowingNextCursor() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        EmployeePage first = await(employeeService.getEmployeesPage(2, null, EmployeeSortField.SALARY, SortDirection.DESC)).getValue();
+        EmployeePage second = await(employeeService.getEmployeesPage(2, first.getNextCursor(), EmployeeSortField.SALARY, SortDirection.DESC)).getValue();
+
+        assertEquals(Arrays.asList(employee2, employee3), first.getEmployees());
+        assertEquals(Arrays.asList(employee1), second.getEmployees());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getEmployeesPage_breaksTiesById_whenSortValuesAreEqual() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee3, employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        EmployeePage first = await(employeeService.getEmployeesPage(2, null, EmployeeSortField.NAME, SortDirection.ASC)).getValue();
+        EmployeePage second = await(employeeService.getEmployeesPage(2, first.getNextCursor(), EmployeeSortField.NAME, SortDirection.ASC)).getValue();
+
+        assertEquals(Arrays.asList(employee2, employee3), first.getEmployees());
+        assertEquals(Arrays.asList(employee1), second.getEmployees());
+    }
+
+    @Test
+    void getEmployeesPage_continuesAfterCursorPosition_whenCursorEmployeeWasRemoved() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        EmployeePage first = await(employeeService.getEmployeesPage(1, null, EmployeeSortField.ID, SortDirection.ASC)).getValue();
+
+        var refreshedService = new EmployeeService(employeeClient, new EmployeeSnapshotCache(employeeClient, 30000, Runnable::run, System::nanoTime), batchExecutor,
+            new EmployeeMetrics(meterRegistry));
+        employeesDto.setData(Arrays.asList(employee2, employee3));
+        EmployeePage second = await(refreshedService.getEmployeesPage(1, first.getNextCursor(), EmployeeSortField.ID, SortDirection.ASC)).getValue();
+
+        assertEquals(Arrays.asList(employee2), second.getEmployees());
+    }
+
+    @Test
+    void getEmployeesPage_throwsIllegalArgumentException_whenCursorDoesNotMatchSort() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        String cursor = await(employeeService.getEmployeesPage(1, null, EmployeeSortField.ID, SortDirection.ASC)).getValue().getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getEmployeesPage(1, cursor, EmployeeSortField.AGE, SortDirection.ASC)).getValue());
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getEmployeesPage(1, "not-a-cursor", EmployeeSortField.ID, SortDirection.ASC)).getValue());
+    }
+
+    @Test
+    void getEmployeesPage_throwsIllegalArgumentException_whenLimitIsOutOfBounds() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getEmployeesPage(0, null, EmployeeSortField.ID, SortDirection.ASC)).getValue());
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getEmployeesPage(1001, null, EmployeeSortField.ID, SortDirection.ASC)).getValue());
     }
     // #endregion
 
@@ -71,7 +204,7 @@ public class EmployeeServiceTest {
         when(employeeClient.findAll()).thenReturn(employeesDto);
         var expectedEmployeesFound = Arrays.asList(employee1);
 
-        List<Employee> employeesFound = employeeService.getEmployeesByNameSearch("JOHN doe");
+        List<Employee> employeesFound = await(employeeService.getEmployeesByNameSearch("JOHN doe")).getValue();
 
         assertEquals(expectedEmployeesFound, employeesFound);       
     }
@@ -84,7 +217,7 @@ public class EmployeeServiceTest {
         when(employeeClient.findAll()).thenReturn(employeesDto);
         var expectedEmployeesFound = Arrays.asList(employee2, employee3);
 
-        List<Employee> employeesFound = employeeService.getEmployeesByNameSearch("Janel Doe");
+        List<Employee> employeesFound = await(employeeService.getEmployeesByNameSearch("Janel Doe")).getValue();
 
         assertEquals(expectedEmployeesFound, employeesFound);      
     }
@@ -98,7 +231,7 @@ public class EmployeeServiceTest {
         when(employeeClient.findAll()).thenReturn(employeesDto);
         var expectedEmployeesFound = Arrays.<Employee>asList();
 
-        List<Employee> employeesFound = employeeService.getEmployeesByNameSearch("Janel Doe");
+        List<Employee> employeesFound = await(employeeService.getEmployeesByNameSearch("Janel Doe")).getValue();
 
         assertEquals(expectedEmployeesFound, employeesFound);      
     }
@@ -111,16 +244,39 @@ public class EmployeeServiceTest {
         when(employeeClient.findAll()).thenReturn(employeesDto);
         var expectedEmployeesFound = Arrays.<Employee>asList();
 
-        List<Employee> employeesFound = employeeService.getEmployeesByNameSearch("Fran Doe");
+        List<Employee> employeesFound = await(employeeService.getEmployeesByNameSearch("Fran Doe")).getValue();
 
         assertEquals(expectedEmployeesFound, employeesFound);        
     }
 
+    @Test
+    void getEmployeesByNameSearch_findsEmployeesStartingWithSearchString_whenModeIsPrefix() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        List<Employee> employeesFound = await(employeeService.getEmployeesByNameSearch("JAN", NameSearchMode.PREFIX)).getValue();
+
+        assertEquals(Arrays.asList(employee2, employee3), employeesFound);
+    }
+
+    @Test
+    void getEmployeesByNameSearch_findsEmployeesContainingSearchString_whenModeIsSubstring() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        assertEquals(Arrays.asList(employee1, employee2, employee3), await(employeeService.getEmployeesByNameSearch(" DOE", NameSearchMode.SUBSTRING)).getValue());
+        assertEquals(Arrays.asList(employee1), await(employeeService.getEmployeesByNameSearch("ohn", NameSearchMode.SUBSTRING)).getValue());
+        assertEquals(Arrays.asList(employee2, employee3), await(employeeService.getEmployeesByNameSearch("el", NameSearchMode.SUBSTRING)).getValue());
+        assertEquals(Arrays.<Employee>asList(), await(employeeService.getEmployeesByNameSearch("doe john", NameSearchMode.SUBSTRING)).getValue());
+    }
+
     @Test
     void getEmployeesByNameSearch_throwsException_whenServiceThrows() throws Exception {
         when(employeeClient.findAll()).thenThrow(RuntimeException.class);
 
-        assertThrows(RuntimeException.class, () -> employeeService.getEmployeesByNameSearch("foo"));
+        assertThrows(RuntimeException.class, () -> await(employeeService.getEmployeesByNameSearch("foo")).getValue());
     }
     // #endregion
 
@@ -132,7 +288,7 @@ public class EmployeeServiceTest {
         employeeDto.setData(employee1);
         when(employeeClient.getById(searchId)).thenReturn(employeeDto);
 
-        Employee actualEmployee = employeeService.getEmployeeById(searchId);
+        Employee actualEmployee = await(employeeService.getEmployeeById(searchId)).getValue();
 
         assertEquals(employee1, actualEmployee);       
     }
@@ -143,17 +299,90 @@ public class EmployeeServiceTest {
         employeesDtoWithNullData.setData(null);
         when(employeeClient.getById(ArgumentMatchers.anyString())).thenReturn(employeesDtoWithNullData);
 
-        Employee actualEmployee = employeeService.getEmployeeById("99999");
+        Employee actualEmployee = await(employeeService.getEmployeeById("99999")).getValue();
 
         assertNull(actualEmployee);
     }
 
+    @Test
+    void getEmployeeById_returnsEmployeeFromSnapshot_whenEmployeesWereJustFetched() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        await(employeeService.getAllEmployees());
+
+        Employee actualEmployee = await(employeeService.getEmployeeById(employee2.getId())).getValue();
+
+        assertEquals(employee2, actualEmployee);
+        Mockito.verify(employeeClient, Mockito.never()).getById(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    void getEmployeeById_callsRemoteApi_whenIdIsNotInSnapshot() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        var employeeDto = new BaseRemoteDto<Employee>();
+        employeeDto.setData(employee3);
+        when(employeeClient.getById(employee3.getId())).thenReturn(employeeDto);
+        await(employeeService.getAllEmployees());
+
+        Employee actualEmployee = await(employeeService.getEmployeeById(employee3.getId())).getValue();
+
+        assertEquals(employee3, actualEmployee);
+    }
+
+    @Test
+    void getEmployeeById_answersFromLastKnownGoodData_whenRemoteApiIsUnavailable() throws Exception {
+        var clock = new AtomicLong();
+        var staleService = new EmployeeService(employeeClient, new EmployeeSnapshotCache(employeeClient, 1000, Runnable::run, clock::get), batchExecutor,
+            new EmployeeMetrics(meterRegistry));
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        await(staleService.getAllEmployees());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        when(employeeClient.getById(ArgumentMatchers.anyString())).thenThrow(new CircuitOpenException("getById was not sent", 1000));
+
+        assertEquals(employee2, await(staleService.getEmployeeById(employee2.getId())).getValue());
+        assertEquals(1.0, meterRegistry.get("employees.stale.fallbacks").tag("operation", "getById").counter().count());
+        assertThrows(CircuitOpenException.class, () -> await(staleService.getEmployeeById("99")).getValue());
+    }
+
     @Test
     void getEmployeeById_throwsException_whenServiceThrows() throws Exception {
         var searchId = employee1.getId();
         when(employeeClient.getById(searchId)).thenThrow(RuntimeException.class);
 
-        assertThrows(RuntimeException.class, () -> employeeService.getEmployeeById(searchId));
+        assertThrows(RuntimeException.class, () -> await(employeeService.getEmployeeById(searchId)).getValue());
+    }
+    // #endregion
+
+    // #region getEmployeesByIds
+    @Test
+    void getEmployeesByIds_answersFromSnapshotAndFetchesTheRest_whenSomeIdsAreNotLocal() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        await(employeeService.getAllEmployees());
+
+        var employeeDto = new BaseRemoteDto<Employee>();
+        employeeDto.setData(employee3);
+        when(employeeClient.getById("3")).thenReturn(employeeDto);
+        when(employeeClient.getById("4")).thenReturn(new BaseRemoteDto<Employee>());
+
+        Map<String, BatchItemResult<Employee>> results = await(employeeService.getEmployeesByIds(Arrays.asList("3", "1", "4", "1"))).getValue();
+
+        assertEquals(Arrays.asList("3", "1", "4"), new ArrayList<>(results.keySet()));
+        assertEquals(employee3, results.get("3").getData());
+        assertEquals(employee1, results.get("1").getData());
+        assertEquals(404, results.get("4").getStatus());
+        Mockito.verify(employeeClient, Mockito.never()).getById("1");
+    }
+
+    @Test
+    void getEmployeesByIds_throwsIllegalArgumentException_whenAnIdIsBlank() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getEmployeesByIds(Arrays.asList("1", " "))).getValue());
     }
     // #endregion
 
@@ -170,7 +399,7 @@ public class EmployeeServiceTest {
     
         when(employeeClient.findAll()).thenReturn(employeesDto);
     
-        List<String> topTenNames = employeeService.getTopTenHighestEarningEmployeeNames();
+        List<String> topTenNames = await(employeeService.getTopTenHighestEarningEmployeeNames()).getValue();
     
         List<String> expectedNames = List.of(employee2.getEmployeeName(), employee3.getEmployeeName(), employee1.getEmployeeName());
         assertEquals(expectedNames, topTenNames);
@@ -184,7 +413,7 @@ public class EmployeeServiceTest {
     
         when(employeeClient.findAll()).thenReturn(emptyEmployeesDto);
     
-        List<String> topTenNames = employeeService.getTopTenHighestEarningEmployeeNames();
+        List<String> topTenNames = await(employeeService.getTopTenHighestEarningEmployeeNames()).getValue();
     
         assertTrue(topTenNames.isEmpty());
     }
@@ -199,7 +428,7 @@ public class EmployeeServiceTest {
     
         when(employeeClient.findAll()).thenReturn(employeesDto);
     
-        List<String> topTenNames = employeeService.getTopTenHighestEarningEmployeeNames();
+        List<String> topTenNames = await(employeeService.getTopTenHighestEarningEmployeeNames()).getValue();
     
         List<String> expectedNames = List.of(employee3.getEmployeeName());
         assertEquals(expectedNames, topTenNames);
@@ -209,11 +438,139 @@ public class EmployeeServiceTest {
     void getTopTenHighestEarningEmployeeNames_throwsException_whenServiceThrows() throws Exception {
         when(employeeClient.findAll()).thenThrow(new RuntimeException());
     
-        assertThrows(RuntimeException.class, () -> employeeService.getTopTenHighestEarningEmployeeNames());
+        assertThrows(RuntimeException.class, () -> await(employeeService.getTopTenHighestEarningEmployeeNames()));
     }
     
     // #endregion
 
+    // #region getTopEmployees
+    @Test
+    void getTopEmployees_ranksByRequestedFieldAndDirection_skippingMissingValues() throws Exception {
+        var noAge = new Employee("4", "Jon Snow", null, 90000);
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3, noAge));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        assertEquals(List.of(employee2, employee3), await(employeeService.getTopEmployees(2, EmployeeSortField.SALARY, SortDirection.DESC, null)).getValue());
+        assertEquals(List.of(employee1, noAge), await(employeeService.getTopEmployees(2, EmployeeSortField.SALARY, SortDirection.ASC, " ")).getValue());
+        assertEquals(List.of(employee3, employee1, employee2), await(employeeService.getTopEmployees(10, EmployeeSortField.AGE, SortDirection.DESC, null)).getValue());
+    }
+
+    @Test
+    void getTopEmployees_ranksOnlyEmployeesWhoseNameContainsFilter() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        List<Employee> youngestJanels = await(employeeService.getTopEmployees(1, EmployeeSortField.AGE, SortDirection.ASC, "JANEL")).getValue();
+
+        assertEquals(List.of(employee2), youngestJanels);
+    }
+
+    @Test
+    void getTopEmployees_throwsIllegalArgumentException_whenKOrFieldIsNotSupported() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getTopEmployees(0, EmployeeSortField.SALARY, SortDirection.DESC, null)).getValue());
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getTopEmployees(1001, EmployeeSortField.SALARY, SortDirection.DESC, null)).getValue());
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getTopEmployees(10, EmployeeSortField.NAME, SortDirection.DESC, null)).getValue());
+    }
+    // #endregion
+
+    // #region getStatistics
+    @Test
+    void getStatistics_summarizesSalariesAndAges_skippingMissingValues() throws Exception {
+        var noAge = new Employee("4", "Jon Snow", null, 90000);
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3, noAge));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        EmployeeStatistics statistics = await(employeeService.getStatistics()).getValue();
+
+        assertEquals(4, statistics.getCount());
+        ValueStatistics salary = statistics.getSalary();
+        assertEquals(4, salary.getCount());
+        assertEquals(50000, salary.getMin());
+        assertEquals(150000, salary.getMax());
+        assertEquals(97500.0, salary.getMean());
+        assertEquals(90000, salary.getP50());
+        assertEquals(150000, salary.getP90());
+        assertEquals(150000, salary.getP99());
+        assertEquals(10, salary.getHistogram().size());
+        assertEquals(4, salary.getHistogram().stream().mapToInt(ValueStatistics.HistogramBucket::getCount).sum());
+
+        ValueStatistics age = statistics.getAge();
+        assertEquals(3, age.getCount());
+        assertEquals(32.0, age.getMean());
+        assertEquals(30, age.getP50());
+        assertEquals(38, age.getP99());
+        assertEquals(List.of(28, 30, 32, 34, 36, 38), age.getHistogram().stream().map(ValueStatistics.HistogramBucket::getFrom).collect(Collectors.toList()));
+        assertEquals(List.of(1, 1, 0, 0, 0, 1), age.getHistogram().stream().map(ValueStatistics.HistogramBucket::getCount).collect(Collectors.toList()));
+        assertTrue(statistics == await(employeeService.getStatistics()).getValue(), "Statistics should be computed once per snapshot");
+    }
+
+    @Test
+    void getStatistics_returnsEmptyStatistics_whenNoEmployeesExist() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Collections.emptyList());
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        EmployeeStatistics statistics = await(employeeService.getStatistics()).getValue();
+
+        assertEquals(0, statistics.getSalary().getCount());
+        assertNull(statistics.getSalary().getMean());
+        assertNull(statistics.getAge().getP50());
+        assertTrue(statistics.getAge().getHistogram().isEmpty());
+    }
+    // #endregion
+
+    // #region getHighestSalaryOfEmployees
+    @Test
+    void getHighestSalaryOfEmployees_returnsHighestSalary_whenEmployeesExist() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        assertEquals(employee2.getEmployeeSalary(), await(employeeService.getHighestSalaryOfEmployees()).getValue());
+    }
+
+    @Test
+    void getHighestSalaryOfEmployees_returnsNull_whenNoEmployeesExist() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Collections.emptyList());
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        assertNull(await(employeeService.getHighestSalaryOfEmployees()).getValue());
+    }
+    // #endregion
+
+    // #region getEmployeesBySalaryRange
+    @Test
+    void getEmployeesBySalaryRange_returnsEmployeesInRangeOrderedBySalary_whenSomeMatch() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        List<Employee> employeesFound = await(employeeService.getEmployeesBySalaryRange(50000, 100000)).getValue();
+
+        assertEquals(Arrays.asList(employee1, employee3), employeesFound);
+    }
+
+    @Test
+    void getEmployeesBySalaryRange_returnsEmptyList_whenNoneMatch() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2, employee3));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+
+        List<Employee> employeesFound = await(employeeService.getEmployeesBySalaryRange(200000, 300000)).getValue();
+
+        assertTrue(employeesFound.isEmpty());
+    }
+
+    @Test
+    void getEmployeesBySalaryRange_throwsIllegalArgumentException_whenMinIsGreaterThanMax() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.getEmployeesBySalaryRange(100, 10)).getValue());
+    }
+    // #endregion
+
 
     // #region createEmployee
     @Test
@@ -235,7 +592,7 @@ public class EmployeeServiceTest {
         when(employeeClient.create(remoteInputMap)).thenReturn(employeeDto);
         Employee expectedEmployee = new Employee(dataResponse);
 
-        Employee employeeReturned = employeeService.createEmployee(controllerInputMap);
+        Employee employeeReturned = await(employeeService.createEmployee(controllerInputMap));
 
         assertEquals(expectedEmployee, employeeReturned);       
     }
@@ -262,7 +619,7 @@ public class EmployeeServiceTest {
         when(employeeClient.create(remoteInputMap)).thenReturn(employeeDto);
         Employee expectedEmployee = new Employee(dataResponse);
 
-        Employee employeeReturned = employeeService.createEmployee(controllerInputMap);
+        Employee employeeReturned = await(employeeService.createEmployee(controllerInputMap));
 
         assertEquals(expectedEmployee, employeeReturned);       
     }
@@ -275,7 +632,7 @@ public class EmployeeServiceTest {
 
         when(employeeClient.create(employeeInputMap)).thenReturn(employeeDto);
 
-        Employee employeeReturned = employeeService.createEmployee(employeeInputMap);
+        Employee employeeReturned = await(employeeService.createEmployee(employeeInputMap));
 
         assertEquals(new Employee(), employeeReturned);       
     }
@@ -285,10 +642,88 @@ public class EmployeeServiceTest {
         Map<String, Object> employeeInput = new HashMap<>();
         when(employeeClient.create(employeeInput)).thenThrow(new RuntimeException());
     
-        assertThrows(RuntimeException.class, () -> employeeService.createEmployee(employeeInput));
+        assertThrows(RuntimeException.class, () -> await(employeeService.createEmployee(employeeInput)));
+    }
+    // #endregion
+
+
+    // #region write-through
+    @Test
+    void createAndDelete_areVisibleToReads_withoutReloadingTheList() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1, employee2));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        long versionBefore = await(employeeService.getAllEmployees()).getVersion();
+
+        Map<String, Object> controllerInputMap = new HashMap<String, Object>();
+        controllerInputMap.put("employee_name", employee3.getEmployeeName());
+        var employeeDto = new BaseRemoteDto<CreatedEmployee>();
+        employeeDto.setData(new CreatedEmployee(employee3.getId(), employee3.getEmployeeName(), employee3.getEmployeeAge(), employee3.getEmployeeSalary()));
+        when(employeeClient.create(ArgumentMatchers.anyMap())).thenReturn(employeeDto);
+        when(employeeClient.delete(employee2.getId())).thenReturn(new BaseRemoteDto<String>());
+
+        await(employeeService.createEmployee(controllerInputMap));
+        await(employeeService.deleteEmployeeById(employee2.getId()));
+
+        VersionedResult<List<Employee>> after = await(employeeService.getAllEmployees());
+        assertEquals(Arrays.asList(employee1, employee3), after.getValue());
+        assertTrue(after.getVersion() != versionBefore, "Writes should move the list to a new snapshot version");
+        assertEquals(employee3.getEmployeeSalary(), await(employeeService.getHighestSalaryOfEmployees()).getValue());
+        assertEquals(Arrays.asList(employee3), await(employeeService.getEmployeesByNameSearch("janel doe")).getValue());
+        Mockito.verify(employeeClient, Mockito.times(1)).findAll();
     }
     // #endregion
 
+    // #region createEmployees
+    @Test
+    void createEmployees_returnsResultPerInputInOrder_whenSomeInputsAreInvalid() throws Exception {
+        Map<String, Object> validInput = new HashMap<String, Object>();
+        validInput.put("employee_name", employee1.getEmployeeName());
+        validInput.put("employee_age", employee1.getEmployeeAge());
+        validInput.put("employee_salary", employee1.getEmployeeSalary());
+
+        Map<String, Object> invalidInput = new HashMap<String, Object>();
+        invalidInput.put("employee_name", "   ");
+
+        var employeeDto = new BaseRemoteDto<CreatedEmployee>();
+        var dataResponse = new CreatedEmployee(employee1.getEmployeeName(), employee1.getEmployeeAge(), employee1.getEmployeeSalary());
+        dataResponse.setId(employee1.getId());
+        employeeDto.setData(dataResponse);
+        when(employeeClient.create(ArgumentMatchers.anyMap())).thenReturn(employeeDto);
+
+        List<BatchItemResult<Employee>> results = await(employeeService.createEmployees(Arrays.asList(invalidInput, validInput, validInput)));
+
+        assertEquals(3, results.size());
+        assertEquals(422, results.get(0).getStatus());
+        assertNull(results.get(0).getData());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(employee1, results.get(1).getData());
+        assertEquals(200, results.get(2).getStatus());
+        Mockito.verify(employeeClient, Mockito.times(2)).create(ArgumentMatchers.anyMap());
+    }
+
+    @Test
+    void createEmployees_reportsUpstreamStatus_whenOneCreateFails() throws Exception {
+        Map<String, Object> validInput = new HashMap<String, Object>();
+        validInput.put("employee_name", employee1.getEmployeeName());
+
+        var request = Request.create(Request.HttpMethod.POST, "/create", Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        var tooManyRequests = new FeignException.TooManyRequests("Too Many Requests", request, null, Collections.emptyMap());
+        when(employeeClient.create(ArgumentMatchers.anyMap())).thenThrow(tooManyRequests);
+
+        List<BatchItemResult<Employee>> results = await(employeeService.createEmployees(List.of(validInput)));
+
+        assertEquals(429, results.get(0).getStatus());
+    }
+
+    @Test
+    void createEmployees_throwsIllegalArgumentException_whenBatchIsEmptyOrTooLarge() throws Exception {
+        Map<String, Object> validInput = Map.of("employee_name", "John Doe");
+
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.createEmployees(List.of())));
+        assertThrows(IllegalArgumentException.class, () -> await(employeeService.createEmployees(List.of(validInput, validInput, validInput, validInput, validInput))));
+    }
+    // #endregion
 
     // #region deleteEmployeeById
     @Test
@@ -298,7 +733,7 @@ public class EmployeeServiceTest {
         employeeIdDto.setData(employeeIdToDelete);
         when(employeeClient.delete(employeeIdToDelete)).thenReturn(employeeIdDto);
 
-        String employeeIdReturned = employeeService.deleteEmployeeById(employeeIdToDelete);
+        String employeeIdReturned = await(employeeService.deleteEmployeeById(employeeIdToDelete));
 
         assertEquals(employeeIdReturned, employeeIdToDelete);       
     }
@@ -309,7 +744,7 @@ public class EmployeeServiceTest {
         var employeeIdDto = new BaseRemoteDto<String>();
         when(employeeClient.delete(employeeIdToDelete)).thenReturn(employeeIdDto);
 
-        String employeeIdReturned = employeeService.deleteEmployeeById(employeeIdToDelete);
+        String employeeIdReturned = await(employeeService.deleteEmployeeById(employeeIdToDelete));
 
         assertEquals(null, employeeIdReturned);       
     }
@@ -318,7 +753,44 @@ public class EmployeeServiceTest {
     void deleteEmployeeById_throwsException_whenServiceThrows() throws Exception {
         when(employeeClient.delete(Mockito.anyString())).thenThrow(new RuntimeException());
     
-        assertThrows(RuntimeException.class, () -> employeeService.deleteEmployeeById("1123124"));
+        assertThrows(RuntimeException.class, () -> await(employeeService.deleteEmployeeById("1123124")));
+    }
+
+    @Test
+    void deleteEmployeeById_throwsUpstreamUnavailable_whenRemoteApiKeepsAnswering429() throws Exception {
+        var request = Request.create(Request.HttpMethod.DELETE, "/delete/19", Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        when(employeeClient.delete("19")).thenThrow(new FeignException.TooManyRequests("Too Many Requests", request, null, Collections.emptyMap()));
+
+        assertThrows(UpstreamUnavailableException.class, () -> await(employeeService.deleteEmployeeById("19")));
+    }
+
+    @Test
+    void deleteEmployeeById_failsFastWithoutTouchingTheSnapshot_whenCircuitIsOpen() throws Exception {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employee1));
+        when(employeeClient.findAll()).thenReturn(employeesDto);
+        await(employeeService.getAllEmployees());
+        when(employeeClient.delete(employee1.getId())).thenThrow(new CircuitOpenException("delete was not sent", 1000));
+
+        assertThrows(CircuitOpenException.class, () -> await(employeeService.deleteEmployeeById(employee1.getId())));
+        assertEquals(Arrays.asList(employee1), await(employeeService.getAllEmployees()).getValue());
+    }
+    // #endregion
+
+    // #region deleteEmployeesByIds
+    @Test
+    void deleteEmployeesByIds_returnsResultPerId_whenOneDeleteFails() throws Exception {
+        var employeeIdDto = new BaseRemoteDto<String>();
+        employeeIdDto.setData("1");
+        when(employeeClient.delete("1")).thenReturn(employeeIdDto);
+        when(employeeClient.delete("2")).thenThrow(new RuntimeException());
+
+        Map<String, BatchItemResult<String>> results = await(employeeService.deleteEmployeesByIds(Arrays.asList("1", "2")));
+
+        assertEquals(Arrays.asList("1", "2"), new ArrayList<>(results.keySet()));
+        assertEquals(200, results.get("1").getStatus());
+        assertEquals("1", results.get("1").getData());
+        assertEquals(500, results.get("2").getStatus());
     }
     // #endregion
 }
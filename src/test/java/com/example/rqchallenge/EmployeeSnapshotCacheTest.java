@@ -0,0 +1,228 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.EmployeeMetrics;
+import com.example.rqchallenge.employees.EmployeeSnapshot;
+import com.example.rqchallenge.employees.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.Futures;
+import com.example.rqchallenge.employees.NameSearchMode;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSnapshotCacheTest {
+
+    private static final long TTL_MILLIS = 1000;
+
+    // The async variants call the stubbed blocking methods
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private EmployeeClient employeeClient;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private EmployeeSnapshotCache snapshotCache;
+
+    private static Employee employee1 = new Employee("1", "John Doe", 30, 50000);
+    private static Employee employee2 = new Employee("2", "Janel Doe", 28, 150000);
+
+    @BeforeEach
+    void setUp() {
+        snapshotCache = new EmployeeSnapshotCache(employeeClient, TTL_MILLIS, pendingRefreshes::add, clock::get);
+    }
+
+    @Test
+    void get_loadsOnceAndServesFromMemory_whenSnapshotIsFresh() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1));
+
+        EmployeeSnapshot first = snapshotCache.get().join();
+        EmployeeSnapshot second = snapshotCache.get().join();
+
+        assertSame(first, second);
+        assertEquals(List.of(employee1), second.getEmployees());
+        assertEquals(1, snapshotCache.getMissCount());
+        assertEquals(1, snapshotCache.getHitCount());
+        verify(employeeClient, times(1)).findAll();
+    }
+
+    @Test
+    void get_servesStaleSnapshotAndRefreshesInBackground_whenTtlHasElapsed() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1), dtoOf(employee1, employee2));
+        EmployeeSnapshot first = snapshotCache.get().join();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        EmployeeSnapshot stale = snapshotCache.get().join();
+        snapshotCache.get().join();
+
+        assertSame(first, stale);
+        assertEquals(1, pendingRefreshes.size(), "Only one refresh should be scheduled while one is outstanding");
+
+        pendingRefreshes.get(0).run();
+        EmployeeSnapshot refreshed = snapshotCache.get().join();
+
+        assertEquals(List.of(employee1, employee2), refreshed.getEmployees());
+        assertEquals(first.getVersion() + 1, refreshed.getVersion());
+        assertEquals(2, snapshotCache.getStaleHitCount());
+        assertEquals(1, snapshotCache.getRefreshCount());
+    }
+
+    @Test
+    void get_keepsServingStaleSnapshot_whenBackgroundRefreshFails() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1)).thenThrow(new RuntimeException());
+        EmployeeSnapshot first = snapshotCache.get().join();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        snapshotCache.get().join();
+        pendingRefreshes.get(0).run();
+
+        assertSame(first, snapshotCache.get().join());
+        assertEquals(1, snapshotCache.getRefreshFailureCount());
+        assertEquals(2, pendingRefreshes.size(), "A failed refresh should be retried on a later stale read");
+    }
+
+    @Test
+    void registeredMeters_reportHitsMissesAndRefreshes() {
+        var meterRegistry = new SimpleMeterRegistry();
+        new EmployeeMetrics(meterRegistry).registerSnapshotCache(snapshotCache);
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1));
+
+        snapshotCache.get().join();
+        snapshotCache.get().join();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        snapshotCache.get().join();
+        pendingRefreshes.get(0).run();
+
+        assertEquals(1.0, meterRegistry.get("employees.cache.misses").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("employees.cache.hits").tag("freshness", "fresh").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("employees.cache.hits").tag("freshness", "stale").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("employees.cache.refreshes").tag("outcome", "success").functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("employees.cache.refreshes").tag("outcome", "failure").functionCounter().count());
+    }
+
+    @Test
+    void peekFresh_returnsSnapshotOnlyWhileWithinTtl() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1));
+
+        assertNull(snapshotCache.peekFresh());
+        EmployeeSnapshot loaded = snapshotCache.get().join();
+        assertSame(loaded, snapshotCache.peekFresh());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        assertNull(snapshotCache.peekFresh());
+        assertTrue(pendingRefreshes.isEmpty(), "Peeking should never schedule a refresh");
+    }
+
+    @Test
+    void get_sharesOneColdLoad_whileItIsInFlight() {
+        var upstream = new CompletableFuture<BaseRemoteDto<List<Employee>>>();
+        when(employeeClient.findAllAsync()).thenReturn(upstream);
+
+        CompletableFuture<EmployeeSnapshot> first = snapshotCache.get();
+        CompletableFuture<EmployeeSnapshot> second = snapshotCache.get();
+        assertFalse(first.isDone());
+        upstream.complete(dtoOf(employee1));
+
+        assertSame(first.join(), second.join());
+        assertEquals(2, snapshotCache.getMissCount(), "A caller sharing the cold load was not served from memory either");
+        assertEquals(0, snapshotCache.getHitCount());
+        verify(employeeClient, times(1)).findAllAsync();
+    }
+
+    @Test
+    void get_throwsException_whenColdLoadFails() {
+        when(employeeClient.findAll()).thenThrow(new RuntimeException());
+
+        assertThrows(RuntimeException.class, () -> Futures.join(snapshotCache.get()));
+    }
+
+    @Test
+    void applyCreatedAndDeleted_updateCurrentSnapshotAndIndexes_withoutReloading() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1));
+        EmployeeSnapshot loaded = snapshotCache.get().join();
+
+        snapshotCache.applyCreated(employee2);
+        EmployeeSnapshot afterCreate = snapshotCache.get().join();
+        snapshotCache.applyDeleted(employee1.getId());
+        EmployeeSnapshot afterDelete = snapshotCache.get().join();
+
+        assertEquals(List.of(employee1, employee2), afterCreate.getEmployees());
+        assertEquals(employee2, afterCreate.findById(employee2.getId()));
+        assertEquals(employee2.getEmployeeSalary(), afterCreate.getSalaryIndex().highestSalary());
+        assertEquals(List.of(employee2), afterDelete.getEmployees());
+        assertNull(afterDelete.findById(employee1.getId()));
+        assertEquals(0, afterDelete.getNameIndex().search("john doe", NameSearchMode.EXACT).length);
+        assertTrue(afterDelete.getVersion() > afterCreate.getVersion() && afterCreate.getVersion() > loaded.getVersion());
+        verify(employeeClient, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_replaysCreate_whenItLandedWhileTheListWasBeingFetched() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1));
+        snapshotCache.get().join();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        snapshotCache.get().join();
+        when(employeeClient.findAll()).thenAnswer(invocation -> {
+            clock.incrementAndGet();
+            snapshotCache.applyCreated(employee2);
+            return dtoOf(employee1);
+        });
+        pendingRefreshes.get(0).run();
+
+        assertEquals(List.of(employee1, employee2), snapshotCache.get().join().getEmployees());
+    }
+
+    @Test
+    void refresh_replaysCreate_whenColdLoadStartedAfterInvalidateLandsFirst() {
+        when(employeeClient.findAll()).thenReturn(dtoOf(employee1));
+        snapshotCache.get().join();
+        // The cold load below fetches a list that already has the create in it
+        when(employeeClient.findAllAsync()).thenReturn(CompletableFuture.completedFuture(dtoOf(employee1, employee2)));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS));
+        snapshotCache.get().join();
+        when(employeeClient.findAll()).thenAnswer(invocation -> {
+            clock.incrementAndGet();
+            snapshotCache.applyCreated(employee2);
+            snapshotCache.invalidate();
+            clock.incrementAndGet();
+            snapshotCache.get().join();
+            // The refresh started before the create, so its list does not have it
+            return dtoOf(employee1);
+        });
+        pendingRefreshes.get(0).run();
+
+        assertEquals(List.of(employee1, employee2), snapshotCache.get().join().getEmployees());
+    }
+
+    private static BaseRemoteDto<List<Employee>> dtoOf(Employee... employees) {
+        var employeesDto = new BaseRemoteDto<List<Employee>>();
+        employeesDto.setData(Arrays.asList(employees));
+        return employeesDto;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.EmployeeSnapshotFile;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+
+public class EmployeeSnapshotFileTest {
+
+    private static final List<Employee> employees = List.of(
+        new Employee("1", "John Doe", 30, 50000),
+        new Employee("2", "Zo\u00eb \u6731", null, 150000),
+        new Employee("emp-3", null, 41, null));
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong wallClock = new AtomicLong(1_000_000);
+
+    @Test
+    void read_returnsWrittenEmployeesAndTheirAge() {
+        EmployeeSnapshotFile snapshotFile = new EmployeeSnapshotFile(directory.resolve("nested/snapshot.bin"), wallClock::get);
+
+        snapshotFile.write(employees);
+        wallClock.addAndGet(5000);
+        EmployeeSnapshotFile.Contents contents = snapshotFile.read();
+
+        assertEquals(employees, contents.getEmployees());
+        assertEquals(5000, contents.getAgeMillis());
+    }
+
+    @Test
+    void read_returnsNull_whenFileIsMissing() {
+        assertNull(new EmployeeSnapshotFile(directory.resolve("snapshot.bin"), wallClock::get).read());
+    }
+
+    @Test
+    void read_returnsNull_whenPayloadIsCorrupt() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        new EmployeeSnapshotFile(path, wallClock::get).write(employees);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(path, bytes);
+
+        assertNull(new EmployeeSnapshotFile(path, wallClock::get).read());
+    }
+
+    @Test
+    void read_returnsNull_whenFileIsTruncated() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        new EmployeeSnapshotFile(path, wallClock::get).write(employees);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        assertNull(new EmployeeSnapshotFile(path, wallClock::get).read());
+    }
+
+    @Test
+    void read_returnsNull_whenFormatVersionIsNotSupported() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        new EmployeeSnapshotFile(path, wallClock::get).write(employees);
+
+        // Changing the version alone would fail the header checksum first, so the checksum is rewritten to match
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        header.putInt(4, 2);
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, 0, 32);
+        header.putInt(32, (int) checksum.getValue());
+        Files.write(path, bytes);
+
+        assertNull(new EmployeeSnapshotFile(path, wallClock::get).read());
+    }
+
+    @Test
+    void cache_servesSavedEmployeesOnStartup_andRefreshesInBackground() {
+        Path path = directory.resolve("snapshot.bin");
+        EmployeeSnapshotFile snapshotFile = new EmployeeSnapshotFile(path, wallClock::get);
+        snapshotFile.write(employees);
+        wallClock.addAndGet(60_000);
+
+        EmployeeClient employeeClient = mock(EmployeeClient.class);
+        List<Runnable> pendingTasks = new ArrayList<>();
+        var snapshotCache = new EmployeeSnapshotCache(employeeClient, snapshotFile, 30_000, pendingTasks::add, System::nanoTime);
+
+        snapshotCache.restoreSaved();
+
+        assertEquals(employees, snapshotCache.get().join().getEmployees());
+        assertTrue(snapshotCache.staleAgeMillis(snapshotCache.get().join()) >= 60_000, "A saved list keeps the age it had when it was saved");
+        assertEquals(1, pendingTasks.size(), "A refresh should be started straight away");
+
+        var fetched = new BaseRemoteDto<List<Employee>>();
+        fetched.setData(Arrays.asList(employees.get(0)));
+        when(employeeClient.findAll()).thenReturn(fetched);
+        pendingTasks.remove(0).run();
+        pendingTasks.remove(0).run();
+
+        assertEquals(List.of(employees.get(0)), snapshotCache.get().join().getEmployees());
+        assertEquals(List.of(employees.get(0)), snapshotFile.read().getEmployees(), "A fetched list should replace the saved one");
+    }
+}
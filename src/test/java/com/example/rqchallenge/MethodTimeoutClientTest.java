@@ -0,0 +1,135 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeClient;
+import com.example.rqchallenge.employees.FeignConfiguration;
+import com.example.rqchallenge.employees.MethodTimeoutClient;
+import com.example.rqchallenge.employees.remoteDtos.BaseRemoteDto;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Client;
+import feign.Feign;
+import feign.Request;
+import feign.Response;
+import feign.Retryer;
+
+public class MethodTimeoutClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    // #region per-method timeouts
+    @Test
+    void execute_usesMethodOverride_andDefaultsForOtherMethods() {
+        List<Request.Options> sentOptions = new ArrayList<>();
+        Client capturing = (request, options) -> {
+            sentOptions.add(options);
+            return Response.builder().status(200).reason("OK").request(request).headers(Collections.emptyMap()).body(new byte[0]).build();
+        };
+        EmployeeClient employeeClient = feignClient(MethodTimeoutClient.of(capturing, 1000, 3000, "findAll = 2000/9000, delete=500/1500"),
+            "http://localhost/api/v1");
+
+        employeeClient.findAll();
+        employeeClient.getById("1");
+        employeeClient.delete("1");
+
+        assertEquals(2000, sentOptions.get(0).connectTimeoutMillis());
+        assertEquals(9000, sentOptions.get(0).readTimeoutMillis());
+        assertEquals(1000, sentOptions.get(1).connectTimeoutMillis());
+        assertEquals(3000, sentOptions.get(1).readTimeoutMillis());
+        assertEquals(1500, sentOptions.get(2).readTimeoutMillis());
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenOverrideIsMalformed() {
+        Client unused = (request, options) -> null;
+
+        assertThrows(IllegalArgumentException.class, () -> MethodTimeoutClient.of(unused, 1000, 3000, "findAll=9000"));
+        assertThrows(IllegalArgumentException.class, () -> MethodTimeoutClient.of(unused, 1000, 3000, "findAll=2s/9s"));
+        assertThrows(IllegalArgumentException.class, () -> MethodTimeoutClient.of(unused, 1000, 3000, "=2000/9000"));
+    }
+    //#endregion
+
+    // #region pooled transport
+    @Test
+    void pooledTransport_decodesGzipResponses_andReusesConnections() throws IOException {
+        byte[] gzippedBody = gzip("{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"John Doe\",\"employee_salary\":50000,\"employee_age\":30}]}");
+        List<String> acceptEncodings = new ArrayList<>();
+        List<Integer> clientPorts = new ArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/employees/", exchange -> {
+            acceptEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, gzippedBody.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(gzippedBody);
+            }
+        });
+        server.start();
+
+        FeignConfiguration configuration = new FeignConfiguration();
+        httpClient = configuration.employeeHttpClient(4, 4, 300_000, 30_000);
+        EmployeeClient employeeClient = feignClient(configuration.employeeFeignClient(httpClient, 1000, 3000, "findAll=1000/5000"),
+            "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1");
+
+        BaseRemoteDto<List<Employee>> first = employeeClient.findAll();
+        employeeClient.findAll();
+
+        assertEquals(List.of(new Employee("1", "John Doe", 30, 50000)), first.getData());
+        assertTrue(acceptEncodings.get(0).contains("gzip"), "Responses should be requested compressed");
+        assertEquals(clientPorts.get(0), clientPorts.get(1), "The second call should go over the kept-alive connection");
+    }
+    //#endregion
+
+    private EmployeeClient feignClient(Client client, String url) {
+        return Feign.builder()
+            .client(client)
+            .contract(new SpringMvcContract())
+            .decoder((response, type) -> response.body() == null || Integer.valueOf(0).equals(response.body().length())
+                ? null
+                : objectMapper.readValue(response.body().asInputStream(), objectMapper.constructType(type)))
+            .retryer(Retryer.NEVER_RETRY)
+            .target(EmployeeClient.class, url);
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes());
+        }
+        return out.toByteArray();
+    }
+}
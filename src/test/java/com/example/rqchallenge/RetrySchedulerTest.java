@@ -0,0 +1,223 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.AdaptiveRateLimiter;
+import com.example.rqchallenge.employees.CircuitBreaker;
+import com.example.rqchallenge.employees.CircuitOpenException;
+import com.example.rqchallenge.employees.EmployeeMetrics;
+import com.example.rqchallenge.employees.Futures;
+import com.example.rqchallenge.employees.RetryDeadlineExceededException;
+import com.example.rqchallenge.employees.RetryScheduler;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RetrySchedulerTest {
+
+    private static final Request request = Request.create(Request.HttpMethod.GET, "/employees/", Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+
+    private RetryScheduler retryScheduler;
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        var rateLimiter = new AdaptiveRateLimiter(1000, 1000, 1000, 1, 0.5, 2000, System::nanoTime);
+        meterRegistry = new SimpleMeterRegistry();
+        var metrics = new EmployeeMetrics(meterRegistry);
+        circuitBreaker = new CircuitBreaker(4, 4, 100, 60_000, 1, System::nanoTime, metrics);
+        retryScheduler = retryScheduler(2000, rateLimiter, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryScheduler.shutdown();
+    }
+
+    @Test
+    void call_returnsResult_whenAttemptSucceedsAfterRetryableFailures() {
+        var calls = new AtomicInteger();
+
+        String result = retryScheduler.call("findAll", true, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw tooManyRequests(Collections.emptyMap());
+            }
+            return "employees";
+        });
+
+        assertEquals("employees", result);
+        assertEquals(3, retryScheduler.getAttemptCount());
+        assertEquals(2, retryScheduler.getRetryCount());
+    }
+
+    @Test
+    void call_recordsEveryAttemptByStatusAndEveryRetry() {
+        var calls = new AtomicInteger();
+
+        retryScheduler.call("findAll", true, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw tooManyRequests(Collections.emptyMap());
+            }
+            return "employees";
+        });
+
+        assertEquals(2, meterRegistry.get("employees.upstream.requests").tag("operation", "findAll").tag("status", "429").timer().count());
+        assertEquals(1, meterRegistry.get("employees.upstream.requests").tag("operation", "findAll").tag("status", "2xx").timer().count());
+        assertEquals(2.0, meterRegistry.get("employees.upstream.retries").tag("operation", "findAll").counter().count());
+    }
+
+    @Test
+    void call_rethrowsLastFailure_whenOutOfAttempts() {
+        var failure = tooManyRequests(Collections.emptyMap());
+
+        FeignException thrown = assertThrows(FeignException.class, () -> retryScheduler.call("findAll", true, () -> { throw failure; }));
+
+        assertSame(failure, thrown);
+        assertEquals(3, retryScheduler.getAttemptCount());
+        assertEquals(1, retryScheduler.getExhaustedCount());
+    }
+
+    @Test
+    void call_doesNotRetry_whenFailureIsNotRetryable() {
+        var failure = new FeignException.BadRequest("Bad Request", request, null, Collections.emptyMap());
+
+        assertThrows(FeignException.class, () -> retryScheduler.call("getById", true, () -> { throw failure; }));
+
+        assertEquals(1, retryScheduler.getAttemptCount());
+        assertEquals(0, retryScheduler.getRetryCount());
+    }
+
+    @Test
+    void call_doesNotRetryServerErrors_whenCallIsNotIdempotent() {
+        var failure = new FeignException.ServiceUnavailable("Service Unavailable", request, null, Collections.emptyMap());
+
+        assertThrows(FeignException.class, () -> retryScheduler.call("create", false, () -> { throw failure; }));
+
+        assertEquals(1, retryScheduler.getAttemptCount());
+    }
+
+    @Test
+    void call_givesUpWithoutWaiting_whenRetryAfterIsBeyondTheDeadline() {
+        var failure = tooManyRequests(Map.of("Retry-After", List.of("120")));
+        long start = System.nanoTime();
+
+        assertThrows(FeignException.class, () -> retryScheduler.call("findAll", true, () -> { throw failure; }));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "Should not wait for a retry that cannot happen in time");
+        assertEquals(1, retryScheduler.getAttemptCount());
+        assertEquals(1, retryScheduler.getExhaustedCount());
+    }
+
+    @Test
+    void call_waitsForRetryAfter_whenRemoteApiAsksForIt() {
+        var calls = new AtomicInteger();
+
+        String result = retryScheduler.call("findAll", true, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw tooManyRequests(Map.of("Retry-After", List.of("1")));
+            }
+            return "employees";
+        });
+
+        assertEquals("employees", result);
+        assertEquals(1000, retryScheduler.getBackoffMillisTotal());
+    }
+
+    @Test
+    void registeredMeters_reportAttemptsExhaustedCallsAndBackoff() {
+        var failure = tooManyRequests(Collections.emptyMap());
+
+        assertThrows(FeignException.class, () -> retryScheduler.call("findAll", true, () -> { throw failure; }));
+
+        assertEquals(3.0, meterRegistry.get("employees.upstream.attempts").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("employees.upstream.exhausted").functionCounter().count());
+        assertEquals((double) retryScheduler.getBackoffMillisTotal(), meterRegistry.get("employees.upstream.backoff").functionCounter().count());
+    }
+
+    @Test
+    void submit_returnsBeforeTheCallCompletes() throws InterruptedException {
+        var release = new CountDownLatch(1);
+
+        CompletableFuture<String> result = retryScheduler.submit("findAll", true, () -> {
+            awaitQuietly(release);
+            return "employees";
+        });
+
+        assertFalse(result.isDone());
+        release.countDown();
+        assertEquals("employees", Futures.get(result));
+    }
+
+    @Test
+    void submit_failsWithRetryDeadlineExceeded_whenCallOutlastsTheDeadline() {
+        var metrics = new EmployeeMetrics(new SimpleMeterRegistry());
+        var shortDeadline = retryScheduler(50, new AdaptiveRateLimiter(1000, 1000, 1000, 1, 0.5, 2000, System::nanoTime), metrics);
+        var release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> result = shortDeadline.submit("create", false, () -> {
+                awaitQuietly(release);
+                return "created";
+            });
+
+            assertThrows(RetryDeadlineExceededException.class, () -> Futures.join(result));
+            assertEquals(1, shortDeadline.getExhaustedCount());
+        } finally {
+            release.countDown();
+            shortDeadline.shutdown();
+        }
+    }
+
+    @Test
+    void call_failsFastWithoutSending_whenCircuitIsOpen() {
+        var calls = new AtomicInteger();
+        var failure = new FeignException.ServiceUnavailable("Service Unavailable", request, null, Collections.emptyMap());
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.class, () -> retryScheduler.call("create", false, () -> { throw failure; }));
+        }
+
+        assertThrows(CircuitOpenException.class, () -> retryScheduler.call("create", false, () -> calls.incrementAndGet()));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(0, calls.get());
+        assertEquals(4, retryScheduler.getAttemptCount());
+        assertEquals(1.0, meterRegistry.get("employees.circuit.rejections").tag("operation", "create").counter().count());
+    }
+
+    private RetryScheduler retryScheduler(long deadlineMillis, AdaptiveRateLimiter rateLimiter, EmployeeMetrics metrics) {
+        return new RetryScheduler(3, 1, 5, deadlineMillis, Executors.newFixedThreadPool(2), Executors.newSingleThreadScheduledExecutor(), rateLimiter,
+            circuitBreaker, metrics);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static FeignException tooManyRequests(Map<String, Collection<String>> headers) {
+        return new FeignException.TooManyRequests("Too Many Requests", request, null, headers);
+    }
+}
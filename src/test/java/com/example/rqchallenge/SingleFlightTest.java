@@ -0,0 +1,132 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.EmployeeMetrics;
+import com.example.rqchallenge.employees.SingleFlight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+
+    @Test
+    void submit_sharesOneCall_whenCalledWithTheSameKeyWhileInFlight() {
+        var singleFlight = new SingleFlight<String, String>();
+        var calls = new AtomicInteger();
+        var upstream = new CompletableFuture<String>();
+        int callers = 8;
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(singleFlight.submit("findAll", () -> {
+                calls.incrementAndGet();
+                return upstream;
+            }));
+        }
+        results.forEach(result -> assertFalse(result.isDone()));
+        upstream.complete("employees");
+
+        for (CompletableFuture<String> result : results) {
+            assertEquals("employees", result.join());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.getExecutedCount());
+        assertEquals(callers - 1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void registeredCounter_reportsCoalescedCalls() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var singleFlight = new SingleFlight<String, String>();
+        new EmployeeMetrics(meterRegistry).registerSingleFlight("findAll", singleFlight);
+        var upstream = new CompletableFuture<String>();
+
+        CompletableFuture<String> first = singleFlight.submit("findAll", () -> upstream);
+        CompletableFuture<String> second = singleFlight.submit("findAll", () -> CompletableFuture.completedFuture("not called"));
+        upstream.complete("employees");
+
+        assertEquals("employees", first.join());
+        assertEquals("employees", second.join());
+        assertEquals(1.0, meterRegistry.get("employees.upstream.coalesced").tag("operation", "findAll").functionCounter().count());
+    }
+
+    @Test
+    void submit_runsAgain_whenPreviousCallHasFinished() {
+        var singleFlight = new SingleFlight<String, Integer>();
+        var calls = new AtomicInteger();
+
+        singleFlight.submit("1", () -> CompletableFuture.completedFuture(calls.incrementAndGet()));
+        singleFlight.submit("1", () -> CompletableFuture.completedFuture(calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    void submit_doesNotShareCalls_whenKeysDiffer() {
+        var singleFlight = new SingleFlight<String, String>();
+        var upstream1 = new CompletableFuture<String>();
+        var upstream2 = new CompletableFuture<String>();
+
+        CompletableFuture<String> first = singleFlight.submit("1", () -> upstream1);
+        CompletableFuture<String> second = singleFlight.submit("2", () -> upstream2);
+        upstream1.complete("1");
+        upstream2.complete("2");
+
+        assertEquals("1", first.join());
+        assertEquals("2", second.join());
+        assertEquals(2, singleFlight.getExecutedCount());
+    }
+
+    @Test
+    void submit_failsEveryCallerWithTheSameException() {
+        var singleFlight = new SingleFlight<String, String>();
+        var failure = new IllegalStateException("upstream failed");
+        var upstream = new CompletableFuture<String>();
+
+        CompletableFuture<String> first = singleFlight.submit("findAll", () -> upstream);
+        CompletableFuture<String> second = singleFlight.submit("findAll", () -> upstream);
+        upstream.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(1, singleFlight.getExecutedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void submit_failsTheFuture_whenStartingTheCallThrows() {
+        var singleFlight = new SingleFlight<String, String>();
+        var failure = new IllegalStateException("could not start");
+
+        CompletableFuture<String> result = singleFlight.submit("findAll", () -> { throw failure; });
+
+        assertSame(failure, assertThrows(CompletionException.class, result::join).getCause());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void submit_keepsSharedCallRunning_whenOneCallerCancels() {
+        var singleFlight = new SingleFlight<String, String>();
+        var upstream = new CompletableFuture<String>();
+
+        CompletableFuture<String> first = singleFlight.submit("findAll", () -> upstream);
+        CompletableFuture<String> second = singleFlight.submit("findAll", () -> upstream);
+        first.cancel(false);
+        upstream.complete("employees");
+
+        assertEquals("employees", second.join());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.rqchallenge;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.rqchallenge.employees.Employee;
+import com.example.rqchallenge.employees.EmployeeColumns;
+import com.example.rqchallenge.employees.EmployeeSortField;
+import com.example.rqchallenge.employees.SalaryIndex;
+import com.example.rqchallenge.employees.SortDirection;
+import com.example.rqchallenge.employees.TopRows;
+
+public class TopRowsTest {
+
+    private static final EmployeeColumns columns = randomColumns(20_000);
+
+    @Test
+    void select_matchesSalaryIndex_forEveryDirection() {
+        SalaryIndex salaryIndex = SalaryIndex.build(columns);
+
+        assertArrayEquals(salaryIndex.topRows(100), TopRows.select(columns, null, EmployeeSortField.SALARY, SortDirection.DESC, 100));
+        assertArrayEquals(salaryIndex.bottomRows(50), TopRows.select(columns, null, EmployeeSortField.SALARY, SortDirection.ASC, 50));
+    }
+
+    @Test
+    void select_returnsTheSameRows_whenWorkIsSplitAcrossPartitions() {
+        int[] candidates = new int[5000];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = i * 4;
+        }
+
+        for (SortDirection direction : SortDirection.values()) {
+            int[] sequential = TopRows.select(columns, candidates, EmployeeSortField.AGE, direction, 100, Integer.MAX_VALUE);
+            int[] parallel = TopRows.select(columns, candidates, EmployeeSortField.AGE, direction, 100, 64);
+
+            assertArrayEquals(sequential, parallel);
+            assertEquals(100, parallel.length);
+            for (int i = 1; i < parallel.length; i++) {
+                // Ages are ranked first, equal ages by row, so consecutive keys must strictly rise or fall
+                long previous = ((long) columns.ageAt(parallel[i - 1]) << 32) | parallel[i - 1];
+                long next = ((long) columns.ageAt(parallel[i]) << 32) | parallel[i];
+                assertEquals(direction == SortDirection.DESC, previous > next, "Rows should come best first");
+            }
+        }
+    }
+
+    @Test
+    void select_skipsRowsWithoutAValue_andReturnsFewerThanK_whenFewerRowsQualify() {
+        EmployeeColumns sparse = EmployeeColumns.of(Arrays.asList(
+            new Employee("1", "a", null, 10),
+            new Employee("2", "b", 40, null),
+            new Employee("3", "c", 25, 30)));
+
+        assertArrayEquals(new int[] { 1, 2 }, TopRows.select(sparse, null, EmployeeSortField.AGE, SortDirection.DESC, 10));
+        assertArrayEquals(new int[] { 0, 2 }, TopRows.select(sparse, null, EmployeeSortField.SALARY, SortDirection.ASC, 10));
+    }
+
+    private static EmployeeColumns randomColumns(int count) {
+        Random random = new Random(7);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Integer age = random.nextInt(20) == 0 ? null : 18 + random.nextInt(50);
+            Integer salary = random.nextInt(20) == 0 ? null : random.nextInt(1000) * 100;
+            employees.add(new Employee(String.valueOf(i), "Employee " + i, age, salary));
+        }
+        return EmployeeColumns.of(employees);
+    }
+}